@@ -6,8 +6,8 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
@@ -30,17 +30,18 @@ import jakarta.json.JsonArray;
 import jakarta.json.JsonNumber;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
 import jakarta.json.JsonValue;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 
 import io.setl.json.exception.IncorrectTypeException;
 import io.setl.json.exception.MissingItemException;
-import io.setl.json.io.Generator;
 import io.setl.json.jackson.JsonArraySerializer;
 import io.setl.json.primitive.CJNull;
 import io.setl.json.primitive.CJString;
 import io.setl.json.primitive.CJTrue;
+import io.setl.json.primitive.MemorySize;
 import io.setl.json.primitive.numbers.CJNumber;
 
 /**
@@ -260,7 +261,7 @@ public class CJArray implements JsonArray, Canonical {
   static Collection<Canonical> fixCollection(Collection<? extends JsonValue> c) {
     if (c instanceof CJArray) {
       // already fixed
-      return ((CJArray) c).myList;
+      return ((CJArray) c).exposed();
     }
 
     ArrayList<Canonical> list = new ArrayList<>(c.size());
@@ -271,7 +272,28 @@ public class CJArray implements JsonArray, Canonical {
   }
 
 
-  private final List<Canonical> myList;
+  /** Memoized canonical representation, only set once frozen. */
+  private String canonicalString = null;
+
+  /** Memoized hash code, only set once frozen. */
+  private int hashCode = 0;
+
+  /** Has a live view of the storage been created, or is this a view of another array's storage? If so, the storage must be copied when frozen. */
+  private boolean hasViews = false;
+
+  /** Has the storage or any of its contents been exposed? If so, a copy cannot share the storage. */
+  private boolean isExposed = false;
+
+  /** Is this deeply immutable?. */
+  private boolean isFrozen = false;
+
+  /** Is the storage shared with a copy? If so, it must be copied before it is modified or any of its contents are exposed. */
+  private volatile boolean isShared = false;
+
+  private List<Canonical> myList;
+
+  /** Memoized estimate of the retained size, only set once frozen. */
+  private long retainedSize = 0;
 
 
   /** New instance. */
@@ -296,12 +318,24 @@ public class CJArray implements JsonArray, Canonical {
    * @param c the collection of values
    */
   public CJArray(Collection<?> c) {
-    myList = new ArrayList<>(asArray(c).myList);
+    myList = new ArrayList<>(asArray(c).exposed());
+    // the elements are also referenced by the collection
+    isExposed = true;
   }
 
 
   private CJArray(CJArray jsonValues, int fromIndex, int toIndex) {
-    myList = jsonValues.myList.subList(fromIndex, toIndex);
+    myList = jsonValues.viewed().subList(fromIndex, toIndex);
+    // a sub-list is a view of the original, so can never be shared
+    isExposed = true;
+    hasViews = true;
+    isFrozen = jsonValues.isFrozen;
+  }
+
+
+  private CJArray(List<Canonical> list, boolean isShared) {
+    myList = list;
+    this.isShared = isShared;
   }
 
 
@@ -341,7 +375,7 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public void add(int index, JsonValue element) {
-    myList.add(index, Canonical.cast(element));
+    exposed().add(index, Canonical.cast(element));
   }
 
 
@@ -370,7 +404,7 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public boolean add(JsonValue e) {
-    return myList.add(Canonical.cast(e));
+    return exposed().add(Canonical.cast(e));
   }
 
 
@@ -388,13 +422,13 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public boolean addAll(@Nonnull Collection<? extends JsonValue> c) {
-    return myList.addAll(fixCollection(c));
+    return exposed().addAll(fixCollection(c));
   }
 
 
   @Override
   public boolean addAll(int index, @Nonnull Collection<? extends JsonValue> c) {
-    return myList.addAll(index, fixCollection(c));
+    return exposed().addAll(index, fixCollection(c));
   }
 
 
@@ -430,7 +464,29 @@ public class CJArray implements JsonArray, Canonical {
    * @param action the consumer
    */
   public void canonicalForEach(Consumer<? super Canonical> action) {
-    myList.forEach(action);
+    readAll().forEach(action);
+  }
+
+
+  /**
+   * Get a value from this, for internal use where the value will only be read. This does not copy shared storage.
+   *
+   * @param index the index of the value
+   *
+   * @return the value
+   */
+  Canonical canonicalGet(int index) {
+    return myList.get(index);
+  }
+
+
+  /**
+   * An iterator over the canonical values in this, for internal use where the values will only be read. The iterator does not support modification.
+   *
+   * @return the iterator
+   */
+  Iterator<Canonical> canonicalIterator() {
+    return Collections.unmodifiableList(myList).iterator();
   }
 
 
@@ -440,7 +496,7 @@ public class CJArray implements JsonArray, Canonical {
    * @return the list iterator
    */
   public ListIterator<Canonical> canonicalListIterator() {
-    return myList.listIterator();
+    return viewed().listIterator();
   }
 
 
@@ -452,13 +508,13 @@ public class CJArray implements JsonArray, Canonical {
    * @return the list iterator
    */
   public ListIterator<Canonical> canonicalListIterator(int index) {
-    return myList.listIterator(index);
+    return viewed().listIterator(index);
   }
 
 
   @Override
   public void clear() {
-    myList.clear();
+    exposed().clear();
   }
 
 
@@ -479,11 +535,36 @@ public class CJArray implements JsonArray, Canonical {
   }
 
 
+  /**
+   * Create a copy of this. The copy shares storage with this until either is modified, or has its contents exposed. If this has already had its contents
+   * exposed, the copy has its own storage which contains copies of the elements. The copy of a frozen array is not frozen.
+   *
+   * @return the copy
+   */
   @Override
   public CJArray copy() {
-    CJArray other = new CJArray(this);
-    other.replaceAll(Canonical::create);
-    return other;
+    if (isFrozen) {
+      // frozen storage never changes, so only the copy needs to know it is shared
+      return new CJArray(myList, true);
+    }
+    if (isExposed) {
+      return new CJArray(copyElements(), false);
+    }
+    isShared = true;
+    return new CJArray(myList, true);
+  }
+
+
+  /**
+   * Create new storage holding copies of the elements. Copying an element does not copy its storage, so this is proportional to the size of this array, and
+   * not the size of the tree.
+   *
+   * @return the new storage
+   */
+  private ArrayList<Canonical> copyElements() {
+    ArrayList<Canonical> list = new ArrayList<>(myList);
+    list.replaceAll(Canonical::copy);
+    return list;
   }
 
 
@@ -494,8 +575,9 @@ public class CJArray implements JsonArray, Canonical {
    */
   public void ensureCapacity(int size) {
     // Cannot ensure capacity of sub-lists.
-    if (myList instanceof ArrayList) {
-      ((ArrayList<?>) myList).ensureCapacity(size);
+    List<Canonical> list = owned();
+    if (list instanceof ArrayList) {
+      ((ArrayList<?>) list).ensureCapacity(size);
     }
   }
 
@@ -509,16 +591,92 @@ public class CJArray implements JsonArray, Canonical {
     return myList.equals(o);
   }
 
+  /**
+   * Estimate the memory retained by this array and everything it contains. The estimate is cached once this array is frozen.
+   *
+   * @return the estimated number of bytes
+   */
+  @Override
+  public long estimateRetainedSize() {
+    long size = retainedSize;
+    if (size != 0) {
+      return size;
+    }
+    size = estimateStructureSize();
+    Iterator<Canonical> iterator = canonicalIterator();
+    while (iterator.hasNext()) {
+      size += iterator.next().estimateRetainedSize();
+    }
+    if (isFrozen) {
+      retainedSize = size;
+    }
+    return size;
+  }
+
+
+  /**
+   * Estimate the memory used by this array itself, not including its elements.
+   *
+   * @return the estimated number of bytes
+   */
+  long estimateStructureSize() {
+    // this, plus the list and its backing array. The capacity of the list is not known, so its size is used instead.
+    long size = MemorySize.align(MemorySize.OBJECT_HEADER + 2 * MemorySize.REFERENCE + 4 + 8 + 3) + MemorySize.ARRAY_LIST
+        + MemorySize.ofArray(MemorySize.REFERENCE, myList.size());
+    String text = canonicalString;
+    if (text != null) {
+      size += MemorySize.ofString(text);
+    }
+    return size;
+  }
+
+
+
+  /**
+   * Get the storage so that its contents can be exposed or modified. Once the contents have been exposed, they may be referenced from outside this array, so
+   * a copy of this array can no longer share the storage.
+   *
+   * @return the storage
+   */
+  private List<Canonical> exposed() {
+    List<Canonical> list = owned();
+    isExposed = true;
+    return list;
+  }
+
 
   @Override
   public void forEach(Consumer<? super JsonValue> action) {
-    myList.forEach(action);
+    readAll().forEach(action);
+  }
+
+
+  /**
+   * Make this array and everything it contains deeply immutable. Any attempt to modify a frozen array throws an UnsupportedOperationException, so it may be
+   * shared between threads and cached without being copied. A copy of a frozen array is cheap and may be modified.
+   *
+   * @return this
+   */
+  @Override
+  public CJArray freeze() {
+    if (!isFrozen) {
+      List<Canonical> list = owned();
+      if (hasViews) {
+        // detach from any live view, as a view could otherwise still modify the storage
+        list = new ArrayList<>(list);
+      }
+      list.forEach(Canonical::freeze);
+      myList = Collections.unmodifiableList(list);
+      isExposed = true;
+      isFrozen = true;
+    }
+    return this;
   }
 
 
   @Override
   public JsonValue get(int index) {
-    return myList.get(index);
+    return read(index);
   }
 
 
@@ -712,7 +870,7 @@ public class CJArray implements JsonArray, Canonical {
    * @return the canonical JSON value
    */
   public Canonical getCanonical(int i) {
-    return myList.get(i);
+    return read(i);
   }
 
 
@@ -916,7 +1074,7 @@ public class CJArray implements JsonArray, Canonical {
     if (index < 0 || size() <= index) {
       return function.apply(index);
     }
-    Object value = myList.get(index).getValue();
+    Object value = read(index).getValue();
     if (clazz.isInstance(value)) {
       return clazz.cast(value);
     }
@@ -933,7 +1091,7 @@ public class CJArray implements JsonArray, Canonical {
     if (index < 0 || size() <= index) {
       throw new MissingItemException(index, type);
     }
-    Canonical canonical = myList.get(index);
+    Canonical canonical = read(index);
     Object value = canonical.getValue();
     if (clazz.isInstance(value)) {
       return clazz.cast(value);
@@ -1029,7 +1187,15 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public int hashCode() {
-    return myList.hashCode();
+    if (!isFrozen) {
+      return myList.hashCode();
+    }
+    int h = hashCode;
+    if (h == 0) {
+      h = myList.hashCode();
+      hashCode = h;
+    }
+    return h;
   }
 
 
@@ -1045,6 +1211,12 @@ public class CJArray implements JsonArray, Canonical {
   }
 
 
+  @Override
+  public boolean isFrozen() {
+    return isFrozen;
+  }
+
+
   @Override
   public boolean isNull(int index) {
     return get(index).getValueType().equals(ValueType.NULL);
@@ -1074,7 +1246,7 @@ public class CJArray implements JsonArray, Canonical {
   @Override
   @Nonnull
   public ListIterator<JsonValue> listIterator(int index) {
-    return new MyIterator(myList.listIterator(index));
+    return new MyIterator(viewed().listIterator(index));
   }
 
 
@@ -1220,56 +1392,107 @@ public class CJArray implements JsonArray, Canonical {
 
 
   /**
-   * Ensure that all Strings and Numbers have a single representation in memory.
+   * Ensure that all Strings, Numbers, object keys and frozen structures have a single representation in memory. A frozen array is not changed.
+   *
+   * @see StorageOptimiser
    */
   public void optimiseStorage() {
-    optimiseStorage(new HashMap<>());
+    new StorageOptimiser().optimise(this);
   }
 
 
   /**
-   * Ensure that all Strings and Numbers have a single representation in memory.
+   * Ensure that all the values in this have a single representation in memory.
    *
-   * @param values the unique values
+   * @param optimiser the optimiser holding the unique values
    */
-  void optimiseStorage(HashMap<Canonical, Canonical> values) {
-    ListIterator<Canonical> iterator = myList.listIterator();
-    while (iterator.hasNext()) {
-      Canonical current = iterator.next();
-      switch (current.getValueType()) {
-        case ARRAY:
-          // recurse into array
-          ((CJArray) current).optimiseStorage(values);
-          break;
-        case OBJECT:
-          ((CJObject) current).optimiseStorage(values);
-          break;
-        default:
-          Canonical single = values.computeIfAbsent(current, c -> c);
-          if (single != current) {
-            iterator.set(single);
-          }
-          break;
+  void optimiseStorage(StorageOptimiser optimiser) {
+    if (isFrozen) {
+      // frozen storage cannot be changed
+      return;
+    }
+    // Storage shared with a copy is not copied, as replacing values with equal ones does not change what the copy sees. Setting an element is not a
+    // structural change, so views and iterators are unaffected.
+    List<Canonical> list = myList;
+    Canonical[] members = list.toArray(new Canonical[0]);
+    optimiser.optimise(members);
+    for (int i = 0; i < members.length; i++) {
+      if (members[i] != list.get(i)) {
+        list.set(i, members[i]);
+      }
+    }
+  }
+
+
+
+  /**
+   * Get the storage so that it can be modified internally. If the storage is shared with a copy, this array is given its own storage first.
+   *
+   * @return the storage
+   */
+  private List<Canonical> owned() {
+    if (isShared) {
+      synchronized (this) {
+        if (isShared) {
+          myList = copyElements();
+          isShared = false;
+        }
       }
     }
+    return myList;
   }
 
 
   @Override
   public Stream<JsonValue> parallelStream() {
-    return myList.parallelStream().map(JsonValue.class::cast);
+    return readAll().parallelStream().map(JsonValue.class::cast);
+  }
+
+
+  /**
+   * Get an element so that it can be read. A primitive value is immutable, so can be read from shared storage. A caller could modify a container, and a
+   * copy's storage holds copies of the containers, so a container must come from storage this array owns.
+   *
+   * @param index the index of the element
+   *
+   * @return the element
+   */
+  private Canonical read(int index) {
+    Canonical value = myList.get(index);
+    if (!isExposed && value instanceof JsonStructure) {
+      value = exposed().get(index);
+    }
+    return value;
+  }
+
+
+  /**
+   * Get the storage so that all of its elements can be read. The storage is only exposed if it contains a container.
+   *
+   * @return the storage
+   */
+  private List<Canonical> readAll() {
+    List<Canonical> list = myList;
+    if (!isExposed) {
+      for (Canonical value : list) {
+        if (value instanceof JsonStructure) {
+          return exposed();
+        }
+      }
+    }
+    return list;
   }
 
 
   @Override
   public JsonValue remove(int index) {
-    return myList.remove(index);
+    return exposed().remove(index);
   }
 
 
   @Override
   public boolean remove(Object o) {
-    return myList.remove(Canonical.cast(o));
+    return exposed().remove(Canonical.cast(o));
   }
 
 
@@ -1277,7 +1500,7 @@ public class CJArray implements JsonArray, Canonical {
   public boolean removeAll(@Nonnull Collection<?> c) {
     boolean b = false;
     for (Object o : c) {
-      if (myList.remove(Canonical.cast(o))) {
+      if (exposed().remove(Canonical.cast(o))) {
         b = true;
       }
     }
@@ -1287,13 +1510,13 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public boolean removeIf(Predicate<? super JsonValue> filter) {
-    return myList.removeIf(filter);
+    return exposed().removeIf(filter);
   }
 
 
   @Override
   public void replaceAll(UnaryOperator<JsonValue> operator) {
-    myList.replaceAll(p -> Canonical.cast(operator.apply(p)));
+    exposed().replaceAll(p -> Canonical.cast(operator.apply(p)));
   }
 
 
@@ -1303,14 +1526,14 @@ public class CJArray implements JsonArray, Canonical {
     for (Object o : c) {
       set.add(Canonical.cast(o));
     }
-    return myList.retainAll(set);
+    return exposed().retainAll(set);
   }
 
 
   @Override
   @Nonnull
   public JsonValue set(int index, JsonValue element) {
-    return myList.set(index, Canonical.cast(element));
+    return exposed().set(index, Canonical.cast(element));
   }
 
 
@@ -1324,7 +1547,7 @@ public class CJArray implements JsonArray, Canonical {
    */
   @Nonnull
   public JsonValue set(int index, Boolean value) {
-    return myList.set(index, CJTrue.valueOf(value));
+    return exposed().set(index, CJTrue.valueOf(value));
   }
 
 
@@ -1339,7 +1562,7 @@ public class CJArray implements JsonArray, Canonical {
   @Nonnull
   public JsonValue set(int index, Number number) {
     Canonical p = (number != null) ? CJNumber.cast(number) : CJNull.NULL;
-    return myList.set(index, p);
+    return exposed().set(index, p);
   }
 
 
@@ -1354,7 +1577,7 @@ public class CJArray implements JsonArray, Canonical {
   @Nonnull
   public JsonValue set(int index, String string) {
     Canonical p = (string != null) ? CJString.create(string) : CJNull.NULL;
-    return myList.set(index, p);
+    return exposed().set(index, p);
   }
 
 
@@ -1367,7 +1590,7 @@ public class CJArray implements JsonArray, Canonical {
    */
   @Nonnull
   public JsonValue setNull(int index) {
-    return myList.set(index, CJNull.NULL);
+    return exposed().set(index, CJNull.NULL);
   }
 
 
@@ -1379,19 +1602,19 @@ public class CJArray implements JsonArray, Canonical {
 
   @Override
   public void sort(Comparator<? super JsonValue> c) {
-    myList.sort(c);
+    exposed().sort(c);
   }
 
 
   @Override
   public Spliterator<JsonValue> spliterator() {
-    return new MySpliterator(myList.spliterator());
+    return new MySpliterator(exposed().spliterator());
   }
 
 
   @Override
   public Stream<JsonValue> stream() {
-    return myList.stream().map(JsonValue.class::cast);
+    return readAll().stream().map(JsonValue.class::cast);
   }
 
 
@@ -1405,48 +1628,40 @@ public class CJArray implements JsonArray, Canonical {
   @Override
   @Nonnull
   public Object[] toArray() {
-    return myList.toArray();
+    return readAll().toArray();
   }
 
 
   @Override
   @Nonnull
   public <T> T[] toArray(@Nonnull T[] a) {
-    return myList.toArray(a);
+    return readAll().toArray(a);
   }
 
 
   @Override
   public <T> T[] toArray(IntFunction<T[]> generator) {
-    return myList.toArray(generator);
+    return readAll().toArray(generator);
   }
 
 
   @Override
   public String toCanonicalString() {
-    StringBuilder buf = new StringBuilder();
-    Generator<?> generator = CanonicalJsonProvider.CANONICAL_GENERATOR_FACTORY.createGenerator(buf);
-    generator.writeStartArray();
-    for (Canonical c : myList) {
-      generator.write(c);
+    if (!isFrozen) {
+      return TreeWriter.toCanonicalString(this);
     }
-    generator.writeEnd();
-    generator.close();
-    return buf.toString();
+    String text = canonicalString;
+    if (text == null) {
+      text = TreeWriter.toCanonicalString(this);
+      canonicalString = text;
+    }
+    return text;
   }
 
 
   @Override
   public String toPrettyString() {
-    StringBuilder buf = new StringBuilder();
-    Generator<?> generator = CanonicalJsonProvider.PRETTY_GENERATOR_FACTORY.createGenerator(buf);
-    generator.writeStartArray();
-    for (Canonical c : myList) {
-      generator.write(c);
-    }
-    generator.writeEnd();
-    generator.close();
-    return buf.toString();
+    return TreeWriter.toPrettyString(this);
   }
 
 
@@ -1456,17 +1671,21 @@ public class CJArray implements JsonArray, Canonical {
   }
 
 
+  /**
+   * Get the storage so that a live view of it can be created. Once a view exists, the storage must be detached from the view when this is frozen.
+   *
+   * @return the storage
+   */
+  private List<Canonical> viewed() {
+    List<Canonical> list = exposed();
+    hasViews = true;
+    return list;
+  }
+
+
   @Override
   public void writeTo(Appendable writer) throws IOException {
-    writer.append('[');
-    int length = size();
-    for (int i = 0; i < length; i++) {
-      if (i > 0) {
-        writer.append(',');
-      }
-      Canonical.cast(get(i)).writeTo(writer);
-    }
-    writer.append(']');
+    TreeWriter.writeTo(writer, this);
   }
 
 }
@@ -4,10 +4,11 @@ import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.AbstractMap.SimpleEntry;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.EnumSet;
-import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.NavigableMap;
@@ -16,6 +17,8 @@ import java.util.Set;
 import java.util.SortedMap;
 import java.util.Spliterator;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.BinaryOperator;
@@ -34,6 +37,7 @@ import jakarta.json.JsonArray;
 import jakarta.json.JsonNumber;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonString;
+import jakarta.json.JsonStructure;
 import jakarta.json.JsonValue;
 
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
@@ -41,12 +45,12 @@ import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import io.setl.json.CJArray.MySpliterator;
 import io.setl.json.exception.IncorrectTypeException;
 import io.setl.json.exception.MissingItemException;
-import io.setl.json.io.Generator;
 import io.setl.json.jackson.JsonObjectSerializer;
 import io.setl.json.primitive.CJFalse;
 import io.setl.json.primitive.CJNull;
 import io.setl.json.primitive.CJString;
 import io.setl.json.primitive.CJTrue;
+import io.setl.json.primitive.MemorySize;
 import io.setl.json.primitive.numbers.CJNumber;
 
 /**
@@ -96,6 +100,8 @@ import io.setl.json.primitive.numbers.CJNumber;
  * <p>The numeric accessors follow the normal Java rules for primitive type conversions and consider any number to be the correct type. For example, if you
  * call {@link #getInt(String)} and the value is the Long value 1L&lt;&lt;50, then the call returns the value of Integer.MAX_VALUE, as would be expected
  * for a narrowing primitive conversion, rather than throwing a {@link IncorrectTypeException}.
+ *
+ * <p>Normal instances are not thread safe. Instances created by {@link #createConcurrent()} may be read and modified by multiple threads.
  */
 
 @JsonSerialize(using = JsonObjectSerializer.class)
@@ -124,6 +130,104 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
 
 
+  /**
+   * A cursor over the members of an object in canonical order. The same cursor is re-used for every member, so iterating with a cursor does not create an
+   * entry per member. The cursor cannot modify the object, and the object must not be modified whilst the cursor is in use.
+   */
+  public static final class Cursor {
+
+    private final NavigableMap<String, Canonical> map;
+
+    private Iterator<Entry<String, Canonical>> iterator;
+
+    private String key;
+
+    private int position;
+
+    /** The storage, if it has a shape. */
+    private ShapedMap shaped;
+
+    private Canonical value;
+
+
+    Cursor(NavigableMap<String, Canonical> map) {
+      this.map = map;
+      reset();
+    }
+
+
+    private void checkPosition() {
+      if (key == null) {
+        throw new IllegalStateException("Cursor is not positioned on a member");
+      }
+    }
+
+
+    /**
+     * Get the key of the current member.
+     *
+     * @return the key
+     */
+    public String getKey() {
+      checkPosition();
+      return key;
+    }
+
+
+    /**
+     * Get the value of the current member.
+     *
+     * @return the value
+     */
+    public Canonical getValue() {
+      checkPosition();
+      return value;
+    }
+
+
+    /**
+     * Move to the next member. A new cursor is positioned before the first member, so this must be called before the first member can be read.
+     *
+     * @return true if the cursor is now on a member, false if there are no more members
+     */
+    public boolean next() {
+      if (shaped != null) {
+        position++;
+        if (position < shaped.size()) {
+          key = shaped.getShape().key(position);
+          value = shaped.valueAt(position);
+          return true;
+        }
+      } else if (iterator.hasNext()) {
+        Entry<String, Canonical> entry = iterator.next();
+        key = entry.getKey();
+        value = entry.getValue();
+        return true;
+      }
+      key = null;
+      value = null;
+      return false;
+    }
+
+
+    /** Return this cursor to its starting position, before the first member. */
+    public void reset() {
+      if (map instanceof ShapedMap && !((ShapedMap) map).isTree()) {
+        shaped = (ShapedMap) map;
+        iterator = null;
+      } else {
+        shaped = null;
+        iterator = map.entrySet().iterator();
+      }
+      position = -1;
+      key = null;
+      value = null;
+    }
+
+  }
+
+
+
   /**
    * Set which converts JsonValue to Canonicals.
    */
@@ -582,7 +686,51 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   }
 
 
-  private final NavigableMap<String, Canonical> myMap;
+  /**
+   * Create a new empty object which may be read and modified by multiple threads without external locking. The object is backed by a concurrent skip-list
+   * map, so reads do not block and members are still held in canonical order. Compute, merge, put-if-absent and replace operations are atomic, although
+   * their functions may be invoked more than once when there is contention, so should not have side effects.
+   *
+   * <p>Iteration, serialization and copying are weakly consistent, and so may not reflect modifications made whilst they are in progress. A copy is a
+   * normal object with its own storage. Only the object itself is thread safe, so values stored in it should be frozen if they will be shared. Freezing the
+   * object itself must be done before it is shared between threads.</p>
+   *
+   * @return the new object
+   */
+  public static CJObject createConcurrent() {
+    return new CJObject(new ConcurrentSkipListMap<>(CODE_POINT_ORDER), false);
+  }
+
+
+
+  /** Memoized canonical representation, only set once frozen. */
+  private String canonicalString = null;
+
+  /** The storage of a frozen object without its unmodifiable wrapper, so it may be read without creating a wrapper for every entry. */
+  private NavigableMap<String, Canonical> frozenMap = null;
+
+  /** Memoized hash code, only set once frozen. */
+  private int hashCode = 0;
+
+  /**
+   * Has a live view of the storage been created, or is this a view of another object's storage? If so, the storage cannot be replaced, and must be copied
+   * when frozen.
+   */
+  private boolean hasViews = false;
+
+  /** Has the storage or any of its contents been exposed? If so, a copy cannot share the storage. */
+  private boolean isExposed = false;
+
+  /** Is this deeply immutable?. */
+  private boolean isFrozen = false;
+
+  /** Is the storage shared with a copy? If so, it must be copied before it is modified or any of its contents are exposed. */
+  private volatile boolean isShared = false;
+
+  private NavigableMap<String, Canonical> myMap;
+
+  /** Memoized estimate of the retained size, only set once frozen. */
+  private long retainedSize = 0;
 
 
   /** New instance. */
@@ -604,15 +752,50 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   }
 
 
-  private CJObject(NavigableMap<String, Canonical> map, boolean makeCopy) {
-    if (makeCopy) {
-      myMap = new TreeMap<>(CODE_POINT_ORDER);
-      for (Entry<String, Canonical> e : map.entrySet()) {
-        myMap.put(e.getKey(), e.getValue().copy());
-      }
-    } else {
-      myMap = map;
+  /**
+   * New instance using the provided storage.
+   *
+   * @param map      the storage
+   * @param isShared is the storage shared with another object?
+   */
+  CJObject(NavigableMap<String, Canonical> map, boolean isShared) {
+    myMap = map;
+    this.isShared = isShared;
+  }
+
+
+  /**
+   * Store this object's keys in a shape which is shared with every other object that has the same keys, so that this object only has to store its values.
+   * Objects created by the parser and by object builders have this applied automatically. Any change to the keys causes the storage to revert to a map.
+   *
+   * <p>The storage is not changed if this object is frozen, if a live view of its storage exists, or if the keys cannot have a shape because there are
+   * none or too many of them.</p>
+   *
+   * @return true if this object's storage now has a shape
+   */
+  public boolean applyShape() {
+    if (shapedStorage() != null) {
+      return true;
+    }
+    if (isFrozen || hasViews || isConcurrent()) {
+      return false;
+    }
+    NavigableMap<String, Canonical> map = owned();
+    int size = map.size();
+    String[] keys = new String[size];
+    Canonical[] values = new Canonical[size];
+    int i = 0;
+    for (Entry<String, Canonical> e : map.entrySet()) {
+      keys[i] = e.getKey();
+      values[i] = e.getValue();
+      i++;
+    }
+    Shape shape = Shape.forKeys(keys);
+    if (shape == null) {
+      return false;
     }
+    myMap = new ShapedMap(shape, values);
+    return true;
   }
 
 
@@ -622,19 +805,51 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   }
 
 
+  /**
+   * A cursor over the mappings in this JSON object, for internal use where the values will only be read.
+   *
+   * @return the cursor
+   */
+  Cursor canonicalCursor() {
+    return new Cursor(readable());
+  }
+
+
   /**
    * Offer every mapping in this JSON object to the consumer.
    *
    * @param action the consumer
    */
   public void canonicalForEach(BiConsumer<? super String, ? super Canonical> action) {
-    myMap.forEach(action);
+    readAll().forEach(action);
+  }
+
+
+  /**
+   * Get a value from this JSON object, for internal use where the value will only be read. This does not copy shared storage.
+   *
+   * @param key the key
+   *
+   * @return the value, or null if there is no mapping for the key
+   */
+  Canonical canonicalGet(String key) {
+    return readable().get(key);
+  }
+
+
+  /**
+   * An iterator over the canonical mappings in this JSON object. The iterator does not support modification of the mappings.
+   *
+   * @return the iterator
+   */
+  Iterator<Entry<String, Canonical>> canonicalIterator() {
+    return Collections.unmodifiableMap(myMap).entrySet().iterator();
   }
 
 
   @Override
   public Entry<String, JsonValue> ceilingEntry(String key) {
-    return new MyEntry(myMap.ceilingEntry(key));
+    return new MyEntry(exposed().ceilingEntry(key));
   }
 
 
@@ -646,7 +861,7 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public void clear() {
-    myMap.clear();
+    exposed().clear();
   }
 
 
@@ -659,21 +874,21 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   @Override
   public Canonical compute(String key, BiFunction<? super String, ? super JsonValue, ? extends JsonValue> remappingFunction) {
     final BiFunction<String, Canonical, Canonical> myFunction = (k, v) -> Canonical.cast(remappingFunction.apply(k, v));
-    return myMap.compute(key, myFunction);
+    return exposed().compute(key, myFunction);
   }
 
 
   @Override
   public Canonical computeIfAbsent(String key, Function<? super String, ? extends JsonValue> mappingFunction) {
     final Function<String, Canonical> myFunction = k -> Canonical.cast(mappingFunction.apply(k));
-    return myMap.computeIfAbsent(key, myFunction);
+    return exposed().computeIfAbsent(key, myFunction);
   }
 
 
   @Override
   public Canonical computeIfPresent(String key, BiFunction<? super String, ? super JsonValue, ? extends JsonValue> remappingFunction) {
     final BiFunction<String, Canonical, Canonical> myFunction = (k, v) -> Canonical.cast(remappingFunction.apply(k, v));
-    return myMap.computeIfPresent(key, myFunction);
+    return exposed().computeIfPresent(key, myFunction);
   }
 
 
@@ -689,28 +904,76 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   }
 
 
+  /**
+   * Create a copy of this. The copy shares storage with this until either is modified, or has its contents exposed. If this has already had its contents
+   * exposed, the copy has its own storage which contains copies of the values. The copy of a frozen object is not frozen.
+   *
+   * @return the copy
+   */
   @Override
   public CJObject copy() {
+    if (isFrozen) {
+      // frozen storage never changes, so only the copy needs to know it is shared
+      return new CJObject(readable(), true);
+    }
+    if (isExposed || isConcurrent()) {
+      // concurrent storage is never shared, as it may be modified at any time
+      return new CJObject(copyEntries(), false);
+    }
+    isShared = true;
     return new CJObject(myMap, true);
   }
 
 
+  /**
+   * Create new storage holding copies of the values. Copying a value does not copy its storage, so this is proportional to the size of this object, and
+   * not the size of the tree.
+   *
+   * @return the new storage
+   */
+  private NavigableMap<String, Canonical> copyEntries() {
+    if (myMap instanceof ShapedMap) {
+      return ((ShapedMap) myMap).copy();
+    }
+    TreeMap<String, Canonical> map = new TreeMap<>(CODE_POINT_ORDER);
+    if (isConcurrent()) {
+      // bulk insertion relies on the size not changing during the copy
+      myMap.forEach(map::put);
+    } else {
+      map.putAll(myMap);
+    }
+    map.replaceAll((k, v) -> v.copy());
+    return map;
+  }
+
+
+  /**
+   * Get a cursor over the mappings in this JSON object. Unlike the entry set, the cursor does not create an entry for every mapping.
+   *
+   * @return the cursor, positioned before the first mapping
+   */
+  public Cursor cursor() {
+    exposed();
+    return new Cursor(readable());
+  }
+
+
   @Override
   public NavigableSet<String> descendingKeySet() {
-    return myMap.descendingKeySet();
+    return viewed().descendingKeySet();
   }
 
 
   @Override
   public NavigableMap<String, JsonValue> descendingMap() {
-    return new CJObject(myMap.descendingMap(), false);
+    return view(viewed().descendingMap());
   }
 
 
   @Override
   @Nonnull
   public Set<Entry<String, JsonValue>> entrySet() {
-    return new MyEntries(myMap.entrySet());
+    return new MyEntries(viewed().entrySet());
   }
 
 
@@ -723,10 +986,74 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
     return myMap.equals(o);
   }
 
+  /**
+   * Estimate the memory retained by this object and everything it contains. The estimate is cached once this object is frozen.
+   *
+   * @return the estimated number of bytes
+   */
+  @Override
+  public long estimateRetainedSize() {
+    long size = retainedSize;
+    if (size != 0) {
+      return size;
+    }
+    size = estimateStructureSize();
+    boolean isShaped = shapedStorage() != null;
+    Cursor cursor = canonicalCursor();
+    while (cursor.next()) {
+      if (!isShaped) {
+        size += MemorySize.ofString(cursor.getKey());
+      }
+      size += cursor.getValue().estimateRetainedSize();
+    }
+    if (isFrozen) {
+      retainedSize = size;
+    }
+    return size;
+  }
+
+
+  /**
+   * Estimate the memory used by this object itself, not including its keys and values.
+   *
+   * @return the estimated number of bytes
+   */
+  long estimateStructureSize() {
+    // this, plus the map and its entries
+    long size = MemorySize.align(MemorySize.OBJECT_HEADER + 3 * MemorySize.REFERENCE + 4 + 8 + 4);
+    NavigableMap<String, Canonical> map = readable();
+    if (map instanceof ShapedMap) {
+      // the keys are held by the shared shape
+      size += MemorySize.align(MemorySize.OBJECT_HEADER + 3 * MemorySize.REFERENCE) + MemorySize.ofArray(MemorySize.REFERENCE, map.size());
+    }
+    if (shapedStorage() == null) {
+      size += MemorySize.TREE_MAP + (long) MemorySize.TREE_MAP_ENTRY * map.size();
+    }
+    String text = canonicalString;
+    if (text != null) {
+      size += MemorySize.ofString(text);
+    }
+    return size;
+  }
+
+
+
+  /**
+   * Get the storage so that its contents can be exposed or modified. Once the contents have been exposed, they may be referenced from outside this object,
+   * so a copy of this object can no longer share the storage.
+   *
+   * @return the storage
+   */
+  private NavigableMap<String, Canonical> exposed() {
+    NavigableMap<String, Canonical> map = owned();
+    isExposed = true;
+    return map;
+  }
+
 
   @Override
   public Entry<String, JsonValue> firstEntry() {
-    return new MyEntry(myMap.firstEntry());
+    return new MyEntry(exposed().firstEntry());
   }
 
 
@@ -738,7 +1065,7 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public Entry<String, JsonValue> floorEntry(String key) {
-    return new MyEntry(myMap.floorEntry(key));
+    return new MyEntry(exposed().floorEntry(key));
   }
 
 
@@ -750,13 +1077,43 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public void forEach(BiConsumer<? super String, ? super JsonValue> action) {
-    myMap.forEach(action);
+    readAll().forEach(action);
+  }
+
+
+  /**
+   * Make this object and everything it contains deeply immutable. Any attempt to modify a frozen object throws an UnsupportedOperationException, so it may be
+   * shared between threads and cached without being copied. A copy of a frozen object is cheap and may be modified.
+   *
+   * @return this
+   */
+  @Override
+  public CJObject freeze() {
+    if (!isFrozen) {
+      NavigableMap<String, Canonical> map = owned();
+      if (hasViews) {
+        // detach from any live view, as a view could otherwise still modify the storage
+        if (map instanceof ShapedMap) {
+          map = ((ShapedMap) map).detach();
+        } else {
+          TreeMap<String, Canonical> copy = new TreeMap<>(CODE_POINT_ORDER);
+          copy.putAll(map);
+          map = copy;
+        }
+      }
+      map.forEach((k, v) -> v.freeze());
+      frozenMap = map;
+      myMap = Collections.unmodifiableNavigableMap(map);
+      isExposed = true;
+      isFrozen = true;
+    }
+    return this;
   }
 
 
   @Override
   public Canonical get(Object key) {
-    return myMap.get(key);
+    return read(key);
   }
 
 
@@ -1200,7 +1557,7 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public JsonValue getOrDefault(Object key, JsonValue defaultValue) {
-    JsonValue value = myMap.get(key);
+    JsonValue value = read(key);
     return value != null ? value : defaultValue;
   }
 
@@ -1307,26 +1664,34 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public int hashCode() {
-    return myMap.hashCode();
+    if (!isFrozen) {
+      return myMap.hashCode();
+    }
+    int h = hashCode;
+    if (h == 0) {
+      h = myMap.hashCode();
+      hashCode = h;
+    }
+    return h;
   }
 
 
   @Override
   public NavigableMap<String, JsonValue> headMap(String toKey, boolean inclusive) {
-    return new CJObject(myMap.headMap(toKey, inclusive), false);
+    return view(viewed().headMap(toKey, inclusive));
   }
 
 
   @Override
   @Nonnull
   public SortedMap<String, JsonValue> headMap(String toKey) {
-    return new CJObject(myMap.headMap(toKey, false), false);
+    return view(viewed().headMap(toKey, false));
   }
 
 
   @Override
   public Entry<String, JsonValue> higherEntry(String key) {
-    return new MyEntry(myMap.higherEntry(key));
+    return new MyEntry(exposed().higherEntry(key));
   }
 
 
@@ -1336,12 +1701,28 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   }
 
 
+  /**
+   * Is the storage safe for concurrent use? If so, it is never shared with a copy, replaced, or refilled.
+   *
+   * @return true if the storage is concurrent
+   */
+  private boolean isConcurrent() {
+    return readable() instanceof ConcurrentNavigableMap;
+  }
+
+
   @Override
   public boolean isEmpty() {
     return myMap.isEmpty();
   }
 
 
+  @Override
+  public boolean isFrozen() {
+    return isFrozen;
+  }
+
+
   @Override
   public boolean isNull(String name) {
     Canonical p = getCanonical(name);
@@ -1374,13 +1755,13 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   @Override
   @Nonnull
   public Set<String> keySet() {
-    return myMap.keySet();
+    return viewed().keySet();
   }
 
 
   @Override
   public Entry<String, JsonValue> lastEntry() {
-    return new MyEntry(myMap.lastEntry());
+    return new MyEntry(exposed().lastEntry());
   }
 
 
@@ -1392,7 +1773,7 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public Entry<String, JsonValue> lowerEntry(String key) {
-    return new MyEntry(myMap.lowerEntry(key));
+    return new MyEntry(exposed().lowerEntry(key));
   }
 
 
@@ -1405,13 +1786,13 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   @Override
   public JsonValue merge(String key, JsonValue value, BiFunction<? super JsonValue, ? super JsonValue, ? extends JsonValue> remappingFunction) {
     final BinaryOperator<Canonical> myFunction = (v1, v2) -> Canonical.cast(remappingFunction.apply(v1, v2));
-    return myMap.merge(key, Canonical.cast(value), myFunction);
+    return exposed().merge(key, Canonical.cast(value), myFunction);
   }
 
 
   @Override
   public NavigableSet<String> navigableKeySet() {
-    return myMap.navigableKeySet();
+    return viewed().navigableKeySet();
   }
 
 
@@ -1553,56 +1934,137 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
 
   /**
-   * Ensure that all Strings and Numbers have a single representation in memory.
+   * Ensure that all Strings, Numbers, object keys and frozen structures have a single representation in memory. A frozen object is not changed.
+   *
+   * @see StorageOptimiser
    */
   public void optimiseStorage() {
-    optimiseStorage(new HashMap<>());
+    new StorageOptimiser().optimise(this);
+  }
+
+
+  /**
+   * Ensure that all the keys and values in this have a single representation in memory.
+   *
+   * @param optimiser the optimiser holding the unique keys and values
+   */
+  void optimiseStorage(StorageOptimiser optimiser) {
+    if (isFrozen) {
+      // frozen storage cannot be changed
+      return;
+    }
+    ShapedMap shaped = shapedStorage();
+    if (shaped != null) {
+      // the keys are held by the shared shape, and replacing values with equal ones is safe even if a copy shares the storage
+      optimiser.optimise(shaped.getValues());
+      return;
+    }
+    if (isShared || isConcurrent()) {
+      // Shared storage is not copied, and concurrent storage cannot be refilled as other threads would see it empty. Keys cannot be replaced without
+      // refilling, so only the values are replaced.
+      optimiseValues(optimiser);
+      return;
+    }
+    if (applyShape()) {
+      // the keys are held by the shared shape
+      optimiser.optimise(((ShapedMap) owned()).getValues());
+      return;
+    }
+    NavigableMap<String, Canonical> map = owned();
+    int size = map.size();
+    String[] keys = new String[size];
+    Canonical[] members = new Canonical[size];
+    int i = 0;
+    boolean keysChanged = false;
+    for (Entry<String, Canonical> e : map.entrySet()) {
+      String key = e.getKey();
+      keys[i] = optimiser.key(key);
+      keysChanged |= keys[i] != key;
+      members[i] = e.getValue();
+      i++;
+    }
+    optimiser.optimise(members);
+
+    if (keysChanged) {
+      // A map's keys cannot be replaced, so the map is refilled. The same map is used as views may refer to it.
+      map.clear();
+      for (i = 0; i < size; i++) {
+        map.put(keys[i], members[i]);
+      }
+    } else {
+      i = 0;
+      for (Entry<String, Canonical> e : map.entrySet()) {
+        if (e.getValue() != members[i]) {
+          e.setValue(members[i]);
+        }
+        i++;
+      }
+    }
   }
 
 
+
   /**
-   * Ensure that all Strings and Numbers have a single representation in memory.
+   * Replace the values in the storage with their single representations, without changing the keys or copying the storage. As each value is only replaced
+   * by an equal value, this is safe when the storage is shared with a copy. For concurrent storage, a value is only replaced if it has not been changed by
+   * another thread.
    *
-   * @param values the unique values
+   * @param optimiser the optimiser holding the unique values
    */
-  void optimiseStorage(HashMap<Canonical, Canonical> values) {
-    for (Entry<String, Canonical> e : myMap.entrySet()) {
-      Canonical current = e.getValue();
-      switch (current.getValueType()) {
-        case ARRAY:
-          // recurse into array
-          ((CJArray) current).optimiseStorage(values);
-          break;
-        case OBJECT:
-          // recurse into object
-          ((CJObject) current).optimiseStorage(values);
-          break;
-        default:
-          Canonical single = values.computeIfAbsent(current, c -> c);
-          if (single != current) {
-            e.setValue(single);
-          }
-          break;
+  private void optimiseValues(StorageOptimiser optimiser) {
+    NavigableMap<String, Canonical> map = myMap;
+    ArrayList<String> keys = new ArrayList<>(map.size());
+    ArrayList<Canonical> values = new ArrayList<>(map.size());
+    for (Entry<String, Canonical> e : map.entrySet()) {
+      keys.add(e.getKey());
+      values.add(e.getValue());
+    }
+    Canonical[] members = values.toArray(new Canonical[0]);
+    optimiser.optimise(members);
+
+    for (int i = 0; i < members.length; i++) {
+      Canonical value = values.get(i);
+      if (members[i] != value) {
+        // replacing the value of an existing key is not a structural change, so views and iterators are unaffected
+        map.replace(keys.get(i), value, members[i]);
       }
     }
   }
 
 
+  /**
+   * Get the storage so that it can be modified internally. If the storage is shared with a copy, this object is given its own storage first.
+   *
+   * @return the storage
+   */
+  private NavigableMap<String, Canonical> owned() {
+    if (isShared) {
+      synchronized (this) {
+        if (isShared) {
+          myMap = copyEntries();
+          isShared = false;
+        }
+      }
+    }
+    return myMap;
+  }
+
+
   @Override
   public Entry<String, JsonValue> pollFirstEntry() {
-    return new MyEntry(myMap.pollFirstEntry());
+    return new MyEntry(exposed().pollFirstEntry());
   }
 
 
   @Override
   public Entry<String, JsonValue> pollLastEntry() {
-    return new MyEntry(myMap.pollLastEntry());
+    return new MyEntry(exposed().pollLastEntry());
   }
 
 
   @Override
   public JsonValue put(String key, JsonValue value) {
-    return myMap.put(key, Canonical.cast(value));
+    return exposed().put(key, Canonical.cast(value));
   }
 
 
@@ -1615,7 +2077,7 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
    * @return the old value
    */
   public Canonical put(String key, Canonical value) {
-    return myMap.put(key, value);
+    return exposed().put(key, value);
   }
 
 
@@ -1712,7 +2174,13 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
    */
   public void putAll(@Nonnull Map<? extends String, ? extends JsonValue> m) {
     if (m instanceof CJObject) {
-      myMap.putAll(((CJObject) m).myMap);
+      NavigableMap<String, Canonical> source = ((CJObject) m).exposed();
+      if (source instanceof ShapedMap) {
+        // avoid converting the other object's storage
+        source.forEach(exposed()::put);
+      } else {
+        exposed().putAll(source);
+      }
     } else {
       for (Entry<? extends String, ? extends JsonValue> e : m.entrySet()) {
         put(e.getKey(), e.getValue());
@@ -1723,19 +2191,65 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public JsonValue putIfAbsent(String key, JsonValue value) {
-    return myMap.putIfAbsent(key, Canonical.cast(value));
+    return exposed().putIfAbsent(key, Canonical.cast(value));
+  }
+
+
+  /**
+   * Get a value so that it can be read. A primitive value is immutable, so can be read from shared storage. A caller could modify a container, and a
+   * copy's storage holds copies of the containers, so a container must come from storage this object owns.
+   *
+   * @param key the key
+   *
+   * @return the value, or null if there is no mapping for the key
+   */
+  private Canonical read(Object key) {
+    Canonical value = readable().get(key);
+    if (value != null && !isExposed && value instanceof JsonStructure) {
+      value = exposed().get(key);
+    }
+    return value;
+  }
+
+
+  /**
+   * Get the storage so that all of its values can be read. The storage is only exposed if it contains a container.
+   *
+   * @return the storage
+   */
+  private NavigableMap<String, Canonical> readAll() {
+    NavigableMap<String, Canonical> map = readable();
+    if (!isExposed) {
+      for (Canonical value : map.values()) {
+        if (value instanceof JsonStructure) {
+          return exposed();
+        }
+      }
+    }
+    return map;
+  }
+
+
+  /**
+   * Get the storage for reading only. This does not copy shared storage, and bypasses the wrapper which prevents modification of a frozen object.
+   *
+   * @return the storage
+   */
+  private NavigableMap<String, Canonical> readable() {
+    NavigableMap<String, Canonical> map = frozenMap;
+    return (map != null) ? map : myMap;
   }
 
 
   @Override
   public Canonical remove(Object key) {
-    return myMap.remove(key);
+    return exposed().remove(key);
   }
 
 
   @Override
   public boolean remove(Object key, Object value) {
-    return myMap.remove(key, value);
+    return exposed().remove(key, value);
   }
 
 
@@ -1844,20 +2358,34 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public boolean replace(String key, JsonValue oldValue, JsonValue newValue) {
-    return myMap.replace(key, Canonical.cast(oldValue), Canonical.cast(newValue));
+    return exposed().replace(key, Canonical.cast(oldValue), Canonical.cast(newValue));
   }
 
 
   @Override
   public JsonValue replace(String key, JsonValue value) {
-    return myMap.replace(key, Canonical.cast(value));
+    return exposed().replace(key, Canonical.cast(value));
   }
 
 
   @Override
   public void replaceAll(BiFunction<? super String, ? super JsonValue, ? extends JsonValue> function) {
     final BiFunction<String, Canonical, Canonical> myFunction = (k, v) -> Canonical.cast(function.apply(k, v));
-    myMap.replaceAll(myFunction);
+    exposed().replaceAll(myFunction);
+  }
+
+
+  /**
+   * Get the storage if it has a shape and has not been converted to a map, for internal use where the values will only be read.
+   *
+   * @return the storage, or null
+   */
+  ShapedMap shapedStorage() {
+    NavigableMap<String, Canonical> map = readable();
+    if (map instanceof ShapedMap && !((ShapedMap) map).isTree()) {
+      return (ShapedMap) map;
+    }
+    return null;
   }
 
 
@@ -1869,55 +2397,47 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
 
   @Override
   public NavigableMap<String, JsonValue> subMap(String fromKey, boolean fromInclusive, String toKey, boolean toInclusive) {
-    return new CJObject(myMap.subMap(fromKey, fromInclusive, toKey, toInclusive), false);
+    return view(viewed().subMap(fromKey, fromInclusive, toKey, toInclusive));
   }
 
 
   @Override
   @Nonnull
   public SortedMap<String, JsonValue> subMap(String fromKey, String toKey) {
-    return new CJObject(myMap.subMap(fromKey, true, toKey, false), false);
+    return view(viewed().subMap(fromKey, true, toKey, false));
   }
 
 
   @Override
   public NavigableMap<String, JsonValue> tailMap(String fromKey, boolean inclusive) {
-    return new CJObject(myMap.tailMap(fromKey, inclusive), false);
+    return view(viewed().tailMap(fromKey, inclusive));
   }
 
 
   @Override
   @Nonnull
   public SortedMap<String, JsonValue> tailMap(String fromKey) {
-    return new CJObject(myMap.tailMap(fromKey, true), false);
+    return view(viewed().tailMap(fromKey, true));
   }
 
 
   @Override
   public String toCanonicalString() {
-    StringBuilder buf = new StringBuilder();
-    Generator<?> generator = CanonicalJsonProvider.CANONICAL_GENERATOR_FACTORY.createGenerator(buf);
-    generator.writeStartObject();
-    for (Map.Entry<String, Canonical> e : myMap.entrySet()) {
-      generator.write(e.getKey(), e.getValue());
+    if (!isFrozen) {
+      return TreeWriter.toCanonicalString(this);
+    }
+    String text = canonicalString;
+    if (text == null) {
+      text = TreeWriter.toCanonicalString(this);
+      canonicalString = text;
     }
-    generator.writeEnd();
-    generator.close();
-    return buf.toString();
+    return text;
   }
 
 
   @Override
   public String toPrettyString() {
-    StringBuilder buf = new StringBuilder();
-    Generator<?> generator = CanonicalJsonProvider.PRETTY_GENERATOR_FACTORY.createGenerator(buf);
-    generator.writeStartObject();
-    for (Map.Entry<String, Canonical> e : myMap.entrySet()) {
-      generator.write(e.getKey(), e.getValue());
-    }
-    generator.writeEnd();
-    generator.close();
-    return buf.toString();
+    return TreeWriter.toPrettyString(this);
   }
 
 
@@ -1930,26 +2450,42 @@ public class CJObject implements NavigableMap<String, JsonValue>, JsonObject, Ca
   @Override
   @Nonnull
   public Collection<JsonValue> values() {
-    return new MyValues(myMap.values());
+    return new MyValues(viewed().values());
+  }
+
+
+  /**
+   * Create an object which is a view of part of this object's storage.
+   *
+   * @param map the view of the storage
+   *
+   * @return the new object
+   */
+  private CJObject view(NavigableMap<String, Canonical> map) {
+    CJObject object = new CJObject(map, false);
+    // a view of another object can never be shared
+    object.isExposed = true;
+    object.hasViews = true;
+    object.isFrozen = isFrozen;
+    return object;
+  }
+
+
+  /**
+   * Get the storage so that a live view of it can be created. Once a view exists, the storage can no longer be replaced by storage with a shape.
+   *
+   * @return the storage
+   */
+  private NavigableMap<String, Canonical> viewed() {
+    NavigableMap<String, Canonical> map = exposed();
+    hasViews = true;
+    return map;
   }
 
 
   @Override
   public void writeTo(Appendable writer) throws IOException {
-    writer.append('{');
-    boolean isNotFirst = false;
-    for (Map.Entry<String, JsonValue> e : entrySet()) {
-      if (isNotFirst) {
-        writer.append(',');
-      } else {
-        isNotFirst = true;
-      }
-
-      CJString.format(writer, e.getKey());
-      writer.append(':');
-      ((Canonical) e.getValue()).writeTo(writer);
-    }
-    writer.append('}');
+    TreeWriter.writeTo(writer, this);
   }
 
 }
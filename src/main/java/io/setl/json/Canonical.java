@@ -15,6 +15,7 @@ import jakarta.json.JsonValue;
 import io.setl.json.exception.IncorrectTypeException;
 import io.setl.json.io.Utf8Appendable;
 import io.setl.json.primitive.CJNull;
+import io.setl.json.primitive.MemorySize;
 import io.setl.json.primitive.numbers.NumberParser;
 
 /**
@@ -341,13 +342,36 @@ public interface Canonical extends JsonValue, FormattedJson {
 
 
   /**
-   * Get a copy of this. If this is immutable, then returns this. Otherwise, returns a deep copy.
+   * Get a copy of this. If this is a primitive value, it is immutable, so returns this. Otherwise, returns a deep copy which may be modified.
    *
    * @return a copy of this
    */
   Canonical copy();
 
 
+  /**
+   * Estimate the memory retained by this value and everything it contains. Values which may be shared with other values are included in full, so the sum
+   * of the estimates for many values may exceed the memory actually used. By default, the estimate is the size of an object holding the canonical text of
+   * this value, which implementations that know their own layout should improve upon.
+   *
+   * @return the estimated number of bytes
+   */
+  default long estimateRetainedSize() {
+    return MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE) + MemorySize.ofString(toCanonicalString());
+  }
+
+
+  /**
+   * Make this deeply immutable, so that it may be shared between threads and cached without being copied. Primitive values are always immutable, so by
+   * default this does nothing.
+   *
+   * @return this
+   */
+  default Canonical freeze() {
+    return this;
+  }
+
+
   /**
    * Get the value encapsulated by this instance.
    *
@@ -381,6 +405,16 @@ public interface Canonical extends JsonValue, FormattedJson {
   <T> T getValueSafe(Class<T> reqType);
 
 
+  /**
+   * Is this deeply immutable? Primitive values are always immutable.
+   *
+   * @return true if this cannot be modified
+   */
+  default boolean isFrozen() {
+    return true;
+  }
+
+
   /**
    * Create the canonical textual JSON representation of this.
    *
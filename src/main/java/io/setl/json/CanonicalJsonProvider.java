@@ -1,13 +1,20 @@
 package io.setl.json;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.Reader;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
 import java.util.Map;
+import java.util.stream.Stream;
 import jakarta.json.JsonArray;
 import jakarta.json.JsonArrayBuilder;
 import jakarta.json.JsonBuilderFactory;
@@ -32,11 +39,13 @@ import jakarta.json.stream.JsonParser;
 import jakarta.json.stream.JsonParserFactory;
 
 import io.setl.json.builder.BuilderFactory;
+import io.setl.json.exception.JsonIOException;
 import io.setl.json.io.GeneratorFactory;
 import io.setl.json.io.ReaderFactory;
 import io.setl.json.io.WriterFactory;
 import io.setl.json.merge.Merge;
 import io.setl.json.merge.MergeDiff;
+import io.setl.json.parser.ArrayElementIterator;
 import io.setl.json.parser.Parser;
 import io.setl.json.parser.ParserFactory;
 import io.setl.json.patch.Patch;
@@ -60,7 +69,7 @@ public class CanonicalJsonProvider extends JsonProvider {
   static final GeneratorFactory PRETTY_GENERATOR_FACTORY = new GeneratorFactory(Map.of(
       JsonGenerator.PRETTY_PRINTING, true,
       GeneratorFactory.TRUST_KEY_ORDER, true,
-      GeneratorFactory.SMALL_STRUCTURE_LIMIT, 20
+      GeneratorFactory.SMALL_STRUCTURE_LIMIT, TreeWriter.PRETTY_SMALL_STRUCTURE_LIMIT
   ));
 
   static boolean isToStringPretty = false;
@@ -110,6 +119,75 @@ public class CanonicalJsonProvider extends JsonProvider {
   }
 
 
+  /**
+   * Create an iterator that lazily parses the elements of a root array in UTF-8 encoded input. The input stream is closed when the iterator is exhausted or
+   * closed.
+   *
+   * @param in the input
+   *
+   * @return the iterator
+   */
+  public ArrayElementIterator createArrayIterator(InputStream in) {
+    return createArrayIterator(new InputStreamReader(in, UTF_8));
+  }
+
+
+  /**
+   * Create an iterator that lazily parses the elements of a root array in a UTF-8 encoded file. The file is closed when the iterator is exhausted or closed.
+   *
+   * @param path the file
+   *
+   * @return the iterator
+   *
+   * @throws JsonIOException if the file cannot be opened
+   */
+  public ArrayElementIterator createArrayIterator(Path path) {
+    try {
+      return createArrayIterator(Files.newBufferedReader(path, UTF_8));
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+
+  /**
+   * Create an iterator that lazily parses the elements of a root array. The reader is closed when the iterator is exhausted or closed.
+   *
+   * @param reader the input
+   *
+   * @return the iterator
+   */
+  public ArrayElementIterator createArrayIterator(Reader reader) {
+    return new ParserFactory(null).createArrayIterator(reader);
+  }
+
+
+  /**
+   * Create a stream that lazily parses the elements of a root array in UTF-8 encoded input. The input is closed when the stream is closed.
+   *
+   * @param in the input
+   *
+   * @return the stream
+   */
+  public Stream<Canonical> createArrayStream(InputStream in) {
+    return createArrayIterator(in).stream();
+  }
+
+
+  /**
+   * Create a stream that lazily parses the elements of a root array in a UTF-8 encoded file. The file is closed when the stream is closed.
+   *
+   * @param path the file
+   *
+   * @return the stream
+   *
+   * @throws JsonIOException if the file cannot be opened
+   */
+  public Stream<Canonical> createArrayStream(Path path) {
+    return createArrayIterator(path).stream();
+  }
+
+
   @Override
   public JsonBuilderFactory createBuilderFactory(Map<String, ?> config) {
     // Our ArrayBuilder and ObjectBuilder do not take any configuration, so we discard what was specified.
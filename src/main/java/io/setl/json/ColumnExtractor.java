@@ -0,0 +1,204 @@
+package io.setl.json;
+
+import java.util.BitSet;
+import java.util.stream.IntStream;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonValue.ValueType;
+
+import io.setl.json.primitive.CJString;
+import io.setl.json.primitive.numbers.CJNumber;
+
+/**
+ * Extract one member of every object in an array into a column. A column is an array of primitives or Strings with one entry for every element of the
+ * array, together with a bitmap of the elements which did not provide a value. An element does not provide a value if it is not an object, if it does not
+ * contain the member, or if the member is null or of an unsuitable type. The column holds zero or null for such elements.
+ *
+ * <p>Values are read directly from the canonical storage without copying shared storage, throwing type-checking exceptions, or boxing numbers. The type
+ * conversions match the "opt" accessors of {@link CJObject}. For objects which have a shape, the position of the key is found once per shape rather than
+ * once per object.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ColumnExtractor {
+
+  /** Arrays with at least this many elements are processed in parallel, when processing in parallel. */
+  private static final int PARALLEL_THRESHOLD = Integer.getInteger(ColumnExtractor.class.getPackageName() + ".columnParallelThreshold", 4096);
+
+
+
+  /** Store a value in a column. */
+  private interface Store {
+
+    /**
+     * Store a value in a column, if the value is of a suitable type.
+     *
+     * @param index the index in the column
+     * @param value the value
+     *
+     * @return true if the value was stored
+     */
+    boolean store(int index, Canonical value);
+
+  }
+
+
+
+  /**
+   * Extract the values for one word of the bitmap.
+   *
+   * @param array the array of objects
+   * @param size  the size of the array
+   * @param key   the key of the member to extract
+   * @param store stores values in the column
+   * @param words the bitmap of missing values
+   * @param word  the index of the word to process
+   */
+  private static void extract(CJArray array, int size, String key, Store store, long[] words, int word) {
+    int end = Math.min(size, 64 * word + 64);
+    long bits = 0;
+
+    // the position of the key is found once for each shape
+    Shape shape = null;
+    int position = -1;
+    for (int i = 64 * word; i < end; i++) {
+      Canonical element = array.canonicalGet(i);
+      Canonical value = null;
+      if (element.getValueType() == ValueType.OBJECT) {
+        CJObject object = (CJObject) element;
+        ShapedMap shaped = object.shapedStorage();
+        if (shaped == null) {
+          value = object.canonicalGet(key);
+        } else {
+          if (shaped.getShape() != shape) {
+            shape = shaped.getShape();
+            position = shape.indexOf(key);
+          }
+          value = (position >= 0) ? shaped.valueAt(position) : null;
+        }
+      }
+      if (value == null || !store.store(i, value)) {
+        bits |= 1L << i;
+      }
+    }
+    words[word] = bits;
+  }
+
+
+  private final boolean isParallel;
+
+
+  /** New instance which processes arrays on the calling thread. */
+  public ColumnExtractor() {
+    this(false);
+  }
+
+
+  /**
+   * New instance.
+   *
+   * @param isParallel if true, large arrays are processed in parallel on the common fork-join pool
+   */
+  public ColumnExtractor(boolean isParallel) {
+    this.isParallel = isParallel;
+  }
+
+
+  /**
+   * Extract a column of doubles. Numbers are converted to doubles, and the Strings which represent "Not A Number" and the infinities are recognised.
+   *
+   * @param array   the array of objects
+   * @param key     the key of the member to extract
+   * @param missing if not null, set to the bitmap of elements which did not provide a value
+   *
+   * @return the column
+   */
+  public double[] doubles(CJArray array, String key, BitSet missing) {
+    double[] column = new double[array.size()];
+    extract(array, key, missing, (i, v) -> {
+      if (v.getValueType() == ValueType.NUMBER) {
+        column[i] = ((JsonNumber) v).doubleValue();
+        return true;
+      }
+      if (v instanceof CJString) {
+        Double d = CJNumber.toDouble(v);
+        if (d != null) {
+          column[i] = d;
+          return true;
+        }
+      }
+      return false;
+    });
+    return column;
+  }
+
+
+  /**
+   * Extract a column.
+   *
+   * @param array   the array of objects
+   * @param key     the key of the member to extract
+   * @param missing if not null, set to the bitmap of elements which did not provide a value
+   * @param store   stores values in the column
+   */
+  private void extract(CJArray array, String key, BitSet missing, Store store) {
+    int size = array.size();
+    long[] words = new long[(size + 63) / 64];
+    if (isParallel && size >= PARALLEL_THRESHOLD) {
+      // every task fills a different word of the bitmap
+      IntStream.range(0, words.length).parallel().forEach(w -> extract(array, size, key, store, words, w));
+    } else {
+      for (int w = 0; w < words.length; w++) {
+        extract(array, size, key, store, words, w);
+      }
+    }
+    if (missing != null) {
+      missing.clear();
+      missing.or(BitSet.valueOf(words));
+    }
+  }
+
+
+  /**
+   * Extract a column of longs. Numbers which are not integers are truncated.
+   *
+   * @param array   the array of objects
+   * @param key     the key of the member to extract
+   * @param missing if not null, set to the bitmap of elements which did not provide a value
+   *
+   * @return the column
+   */
+  public long[] longs(CJArray array, String key, BitSet missing) {
+    long[] column = new long[array.size()];
+    extract(array, key, missing, (i, v) -> {
+      if (v.getValueType() == ValueType.NUMBER) {
+        column[i] = ((JsonNumber) v).longValue();
+        return true;
+      }
+      return false;
+    });
+    return column;
+  }
+
+
+  /**
+   * Extract a column of Strings.
+   *
+   * @param array   the array of objects
+   * @param key     the key of the member to extract
+   * @param missing if not null, set to the bitmap of elements which did not provide a value
+   *
+   * @return the column
+   */
+  public String[] strings(CJArray array, String key, BitSet missing) {
+    String[] column = new String[array.size()];
+    extract(array, key, missing, (i, v) -> {
+      if (v.getValueType() == ValueType.STRING) {
+        column[i] = ((CJString) v).getString();
+        return true;
+      }
+      return false;
+    });
+    return column;
+  }
+
+}
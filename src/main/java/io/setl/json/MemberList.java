@@ -0,0 +1,186 @@
+package io.setl.json;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import jakarta.json.JsonConfig.KeyStrategy;
+import jakarta.json.JsonException;
+
+/**
+ * The members of an object, in the order they were added, from which the object is created once all the members are known. As the keys are only sorted
+ * once, an object which can have a shape is created with shaped storage directly, without first building a map.
+ *
+ * <p>A key may be added more than once. Which value is used is decided by the key strategy when the object is created. Alternatively, a member may be put,
+ * which replaces the value of an existing member with the same key.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class MemberList {
+
+  private String[] keys;
+
+  /** The position of the last member with each key. Only created when a member is put. */
+  private HashMap<String, Integer> positions;
+
+  private int size = 0;
+
+  private Canonical[] values;
+
+
+  /** New instance. */
+  public MemberList() {
+    keys = new String[8];
+    values = new Canonical[8];
+  }
+
+
+  /**
+   * Add a member.
+   *
+   * @param key   the member's key
+   * @param value the member's value
+   */
+  public void add(String key, Canonical value) {
+    Objects.requireNonNull(key, "Key must not be null");
+    if (positions != null) {
+      positions.put(key, size);
+    }
+    if (size == keys.length) {
+      int newSize = size * 2;
+      keys = Arrays.copyOf(keys, newSize);
+      values = Arrays.copyOf(values, newSize);
+    }
+    keys[size] = key;
+    values[size] = value;
+    size++;
+  }
+
+
+  private boolean isSorted() {
+    for (int i = 1; i < size; i++) {
+      if (CJObject.CODE_POINT_ORDER.compare(keys[i - 1], keys[i]) >= 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+
+  /**
+   * Put a member, replacing the value of the last member with the same key if there is one.
+   *
+   * @param key   the member's key
+   * @param value the member's value
+   */
+  public void put(String key, Canonical value) {
+    if (positions == null) {
+      positions = new HashMap<>();
+      for (int i = 0; i < size; i++) {
+        positions.put(keys[i], i);
+      }
+    }
+    Integer position = positions.get(key);
+    if (position != null) {
+      values[position] = value;
+    } else {
+      add(key, value);
+    }
+  }
+
+
+  /**
+   * Remove every member with the specified key.
+   *
+   * @param key the key
+   */
+  public void remove(String key) {
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      if (!keys[i].equals(key)) {
+        keys[j] = keys[i];
+        values[j] = values[i];
+        j++;
+      }
+    }
+    Arrays.fill(keys, j, size, null);
+    Arrays.fill(values, j, size, null);
+    size = j;
+    positions = null;
+  }
+
+
+  /**
+   * Get the number of members that have been added, including any repeated keys.
+   *
+   * @return the number of members
+   */
+  public int size() {
+    return size;
+  }
+
+
+  /**
+   * Create the object. The object does not share any storage with this, so this may continue to be used.
+   *
+   * @param strategy the strategy for keys which were added more than once
+   *
+   * @return the new object
+   *
+   * @throws JsonException if a key was added more than once and the strategy is {@link KeyStrategy#NONE}
+   */
+  public CJObject toObject(KeyStrategy strategy) {
+    String[] newKeys;
+    Canonical[] newValues;
+    int count;
+    if (isSorted()) {
+      // canonical input is already in order, and so has no repeated keys
+      newKeys = Arrays.copyOf(keys, size);
+      newValues = Arrays.copyOf(values, size);
+      count = size;
+    } else {
+      // Sort the positions of the members by key. The sort is stable, so repeated keys remain in the order they were added.
+      Integer[] order = new Integer[size];
+      for (int i = 0; i < size; i++) {
+        order[i] = i;
+      }
+      Arrays.sort(order, (a, b) -> CJObject.CODE_POINT_ORDER.compare(keys[a], keys[b]));
+
+      newKeys = new String[size];
+      newValues = new Canonical[size];
+      count = 0;
+      for (Integer p : order) {
+        if (count > 0 && newKeys[count - 1].equals(keys[p])) {
+          switch (strategy) {
+            case FIRST:
+              break;
+            case NONE:
+              throw new JsonException("Duplicate key: " + keys[p]);
+            default:
+              newValues[count - 1] = values[p];
+              break;
+          }
+        } else {
+          newKeys[count] = keys[p];
+          newValues[count] = values[p];
+          count++;
+        }
+      }
+      if (count < size) {
+        newKeys = Arrays.copyOf(newKeys, count);
+        newValues = Arrays.copyOf(newValues, count);
+      }
+    }
+
+    Shape shape = Shape.forKeys(newKeys);
+    if (shape != null) {
+      return new CJObject(new ShapedMap(shape, newValues), false);
+    }
+    TreeMap<String, Canonical> map = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+    for (int i = 0; i < count; i++) {
+      map.put(newKeys[i], newValues[i]);
+    }
+    return new CJObject(map, false);
+  }
+
+}
@@ -0,0 +1,363 @@
+package io.setl.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.MessageDigest;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+import jakarta.json.JsonValue.ValueType;
+
+import io.setl.json.exception.JsonIOException;
+import io.setl.json.io.NoOpFormatter;
+import io.setl.json.io.Utf8Appendable;
+import io.setl.json.primitive.CJString;
+
+/**
+ * Write the canonical form of a large value using multiple threads.
+ *
+ * <p>Arrays and objects with more members than the chunk size are split into chunks of consecutive members. Each chunk is serialized to its own segment of
+ * UTF-8 bytes as a separate task, and the segments are written to the output in canonical order. Structures within a chunk which are themselves large are
+ * split in the same way. As the canonical form of every value is fixed, the output is identical to that produced by {@link Canonical#writeTo(OutputStream)}.
+ * </p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ParallelWriter {
+
+  /** Default number of members in each chunk. */
+  private static final int DEFAULT_CHUNK_SIZE = Integer.getInteger(ParallelWriter.class.getPackageName() + ".parallelChunkSize", 1024);
+
+
+
+  /** Receiver of the output segments. */
+  private interface SegmentConsumer {
+
+    void accept(byte[] bytes) throws IOException;
+
+  }
+
+
+
+  /** A chunk of consecutive members of a structure. */
+  private static class Chunk implements Supplier<byte[]> {
+
+    /** The elements of an array, or null if this is a chunk of an object. */
+    final List<Canonical> elements;
+
+    /** The entries of an object, or null if this is a chunk of an array. */
+    final List<Entry<String, Canonical>> entries;
+
+    /** Does the chunk follow a member of the same structure?. */
+    final boolean isNotFirst;
+
+
+    Chunk(List<Canonical> elements, List<Entry<String, Canonical>> entries, boolean isNotFirst) {
+      this.elements = elements;
+      this.entries = entries;
+      this.isNotFirst = isNotFirst;
+    }
+
+
+    @Override
+    public byte[] get() {
+      // format straight into UTF-8 bytes, without an intermediate String
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      Utf8Appendable utf8 = new Utf8Appendable(bytes);
+      NoOpFormatter formatter = new NoOpFormatter(utf8);
+      boolean needComma = isNotFirst;
+      if (elements != null) {
+        for (Canonical c : elements) {
+          if (needComma) {
+            formatter.writeComma();
+          }
+          needComma = true;
+          TreeWriter.write(formatter, c);
+        }
+      } else {
+        for (Entry<String, Canonical> e : entries) {
+          if (needComma) {
+            formatter.writeComma();
+          }
+          needComma = true;
+          formatter.writeKey(e.getKey());
+          formatter.writeColon();
+          TreeWriter.write(formatter, e.getValue());
+        }
+      }
+      try {
+        utf8.finish();
+      } catch (IOException e) {
+        throw new JsonIOException(e);
+      }
+      return bytes.toByteArray();
+    }
+
+  }
+
+
+
+  /** A segment of output which is known in advance. */
+  private static class Literal implements Supplier<byte[]> {
+
+    final byte[] bytes;
+
+
+    Literal(String text) {
+      bytes = text.getBytes(UTF_8);
+    }
+
+
+    @Override
+    public byte[] get() {
+      return bytes;
+    }
+
+  }
+
+
+
+  private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+  private Executor executor = ForkJoinPool.commonPool();
+
+  private int window = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+
+  private boolean isLarge(Canonical value) {
+    if (value == null) {
+      return false;
+    }
+    ValueType type = value.getValueType();
+    if (type == ValueType.ARRAY) {
+      return ((CJArray) value).size() > chunkSize;
+    }
+    if (type == ValueType.OBJECT) {
+      return ((CJObject) value).size() > chunkSize;
+    }
+    return false;
+  }
+
+
+  /**
+   * Divide a value into the segments of its output.
+   *
+   * @param segments the segments
+   * @param value    the value
+   */
+  private void plan(List<Supplier<byte[]>> segments, Canonical value) {
+    if (!isLarge(value)) {
+      segments.add(new Chunk(Collections.singletonList(value), null, false));
+      return;
+    }
+
+    if (value.getValueType() == ValueType.ARRAY) {
+      segments.add(new Literal("["));
+      ArrayList<Canonical> chunk = new ArrayList<>(chunkSize);
+      boolean isNotFirst = false;
+      Iterator<Canonical> iterator = ((CJArray) value).canonicalIterator();
+      while (iterator.hasNext()) {
+        Canonical c = iterator.next();
+        if (isLarge(c)) {
+          if (!chunk.isEmpty()) {
+            segments.add(new Chunk(chunk, null, isNotFirst));
+            chunk = new ArrayList<>(chunkSize);
+            isNotFirst = true;
+          }
+          if (isNotFirst) {
+            segments.add(new Literal(","));
+          }
+          plan(segments, c);
+          isNotFirst = true;
+          continue;
+        }
+
+        chunk.add(c);
+        if (chunk.size() == chunkSize) {
+          segments.add(new Chunk(chunk, null, isNotFirst));
+          chunk = new ArrayList<>(chunkSize);
+          isNotFirst = true;
+        }
+      }
+      if (!chunk.isEmpty()) {
+        segments.add(new Chunk(chunk, null, isNotFirst));
+      }
+      segments.add(new Literal("]"));
+      return;
+    }
+
+    segments.add(new Literal("{"));
+    ArrayList<Entry<String, Canonical>> chunk = new ArrayList<>(chunkSize);
+    boolean isNotFirst = false;
+    Iterator<Entry<String, Canonical>> iterator = ((CJObject) value).canonicalIterator();
+    while (iterator.hasNext()) {
+      Entry<String, Canonical> e = iterator.next();
+      if (isLarge(e.getValue())) {
+        if (!chunk.isEmpty()) {
+          segments.add(new Chunk(null, chunk, isNotFirst));
+          chunk = new ArrayList<>(chunkSize);
+          isNotFirst = true;
+        }
+        segments.add(new Literal((isNotFirst ? "," : "") + CJString.format(e.getKey()) + ":"));
+        plan(segments, e.getValue());
+        isNotFirst = true;
+        continue;
+      }
+
+      chunk.add(e);
+      if (chunk.size() == chunkSize) {
+        segments.add(new Chunk(null, chunk, isNotFirst));
+        chunk = new ArrayList<>(chunkSize);
+        isNotFirst = true;
+      }
+    }
+    if (!chunk.isEmpty()) {
+      segments.add(new Chunk(null, chunk, isNotFirst));
+    }
+    segments.add(new Literal("}"));
+  }
+
+
+  /**
+   * Serialize a value and pass the segments of its output to a consumer in order.
+   *
+   * @param value    the value
+   * @param consumer the consumer of the segments
+   *
+   * @throws IOException if the consumer fails
+   */
+  private void process(Canonical value, SegmentConsumer consumer) throws IOException {
+    List<Supplier<byte[]>> segments = new ArrayList<>();
+    plan(segments, value);
+
+    Iterator<Supplier<byte[]>> iterator = segments.iterator();
+    ArrayDeque<CompletableFuture<byte[]>> pending = new ArrayDeque<>();
+    try {
+      while (true) {
+        while (iterator.hasNext() && pending.size() < window) {
+          Supplier<byte[]> segment = iterator.next();
+          if (segment instanceof Literal) {
+            pending.add(CompletableFuture.completedFuture(segment.get()));
+          } else {
+            pending.add(CompletableFuture.supplyAsync(segment, executor));
+          }
+        }
+        if (pending.isEmpty()) {
+          return;
+        }
+
+        byte[] bytes;
+        try {
+          bytes = pending.removeFirst().join();
+        } catch (CompletionException e) {
+          if (e.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) e.getCause();
+          }
+          throw e;
+        }
+        consumer.accept(bytes);
+      }
+    } finally {
+      for (CompletableFuture<byte[]> future : pending) {
+        future.cancel(false);
+      }
+    }
+  }
+
+
+  /**
+   * Set the maximum number of members of a structure which are serialized together as a single task. Structures with more members are split into chunks.
+   * The default is 1024, which may be changed by the "io.setl.json.parallelChunkSize" system property.
+   *
+   * @param chunkSize the number of members in each chunk
+   */
+  public void setChunkSize(int chunkSize) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("Chunk size must be positive, not " + chunkSize);
+    }
+    this.chunkSize = chunkSize;
+  }
+
+
+  /**
+   * Set the executor which runs the serialization tasks. The default is the common fork-join pool.
+   *
+   * @param executor the executor
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+
+  /**
+   * Set the maximum number of segments which may be serialized but not yet written. This limits the memory used when the output is slower than the
+   * serialization. The default is twice the parallelism of the common fork-join pool, plus one.
+   *
+   * @param window the maximum number of outstanding segments
+   */
+  public void setWindow(int window) {
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive, not " + window);
+    }
+    this.window = window;
+  }
+
+
+  /**
+   * Create the canonical form of a value as UTF-8 bytes.
+   *
+   * @param value the value
+   *
+   * @return the UTF-8 encoded canonical form
+   */
+  public byte[] toByteArray(Canonical value) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      write(out, value);
+    } catch (IOException e) {
+      throw new InternalError("Impossible IOException", e);
+    }
+    return out.toByteArray();
+  }
+
+
+  /**
+   * Update a message digest with the UTF-8 bytes of the canonical form of a value. Serialization of later segments continues whilst earlier segments are
+   * hashed.
+   *
+   * @param digest the message digest
+   * @param value  the value
+   */
+  public void update(MessageDigest digest, Canonical value) {
+    try {
+      process(value, digest::update);
+    } catch (IOException e) {
+      throw new InternalError("Impossible IOException", e);
+    }
+  }
+
+
+  /**
+   * Write the canonical form of a value to a stream in UTF-8. The stream is neither flushed nor closed.
+   *
+   * @param out   the stream
+   * @param value the value
+   *
+   * @throws IOException if writing to the stream fails
+   */
+  public void write(OutputStream out, Canonical value) throws IOException {
+    process(value, out::write);
+  }
+
+}
@@ -0,0 +1,146 @@
+package io.setl.json;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The sorted keys of an object, shared by every object with the same keys. Objects with a shape store only their values, which are found by the key's
+ * position in the shape.
+ *
+ * <p>Shapes are held in a global registry. Objects with too many keys are stored normally. The number of shapes in the registry is limited, and when it is
+ * full the shapes which have not been used recently are removed, so unusual objects do not fill the registry. A removed shape remains valid for the objects
+ * that use it.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+final class Shape {
+
+  /** Maximum number of keys in a shape. */
+  private static final int MAX_KEYS = Integer.getInteger(Shape.class.getPackageName() + ".shapeMaxKeys", 64);
+
+  /** Maximum number of shapes in the registry. */
+  private static final int MAX_SHAPES = Integer.getInteger(Shape.class.getPackageName() + ".shapeRegistrySize", 4096);
+
+  private static final Map<List<String>, Shape> REGISTRY = new ConcurrentHashMap<>();
+
+
+  /**
+   * Get the shape for a set of keys.
+   *
+   * @param keys the keys, which must be distinct and in code point order. The array must not be modified afterwards.
+   *
+   * @return the shape, or null if the keys cannot have a shape
+   */
+  static Shape forKeys(String[] keys) {
+    if (keys.length == 0 || keys.length > MAX_KEYS) {
+      return null;
+    }
+    List<String> list = Arrays.asList(keys);
+    Shape shape = REGISTRY.get(list);
+    if (shape != null) {
+      if (!shape.isUsed) {
+        shape.isUsed = true;
+      }
+      return shape;
+    }
+    if (REGISTRY.size() >= MAX_SHAPES) {
+      evict();
+    }
+    return REGISTRY.computeIfAbsent(list, k -> new Shape(keys));
+  }
+
+
+  /**
+   * Remove shapes from the full registry. Shapes which have not been used since they were created or since the last sweep are removed, and the others
+   * are marked as unused. At least a quarter of the registry is removed, so sweeps are infrequent.
+   */
+  private static void evict() {
+    synchronized (REGISTRY) {
+      if (REGISTRY.size() < MAX_SHAPES) {
+        return;
+      }
+      int target = MAX_SHAPES - Math.max(1, MAX_SHAPES / 4);
+      for (int pass = 0; pass < 2 && REGISTRY.size() > target; pass++) {
+        Iterator<Shape> iterator = REGISTRY.values().iterator();
+        while (iterator.hasNext() && REGISTRY.size() > target) {
+          Shape shape = iterator.next();
+          if (shape.isUsed) {
+            shape.isUsed = false;
+          } else {
+            iterator.remove();
+          }
+        }
+      }
+    }
+  }
+
+
+  /** The position of each key. */
+  private final Map<String, Integer> index;
+
+  private final String[] keys;
+
+  /** Set when this shape is found in the registry. This is only a hint for eviction, so it does not need to be exact. */
+  private boolean isUsed = false;
+
+
+  private Shape(String[] keys) {
+    this.keys = keys;
+    index = new HashMap<>();
+    for (int i = 0; i < keys.length; i++) {
+      index.put(keys[i], i);
+    }
+  }
+
+
+  /**
+   * Find the position of a key in this shape.
+   *
+   * @param key the key
+   *
+   * @return the position of the key, or -1 if it is not in this shape
+   */
+  int indexOf(Object key) {
+    Integer position = index.get(key);
+    return (position != null) ? position : -1;
+  }
+
+
+  /**
+   * Get the key at a position.
+   *
+   * @param position the position
+   *
+   * @return the key
+   */
+  String key(int position) {
+    return keys[position];
+  }
+
+
+  /**
+   * Search for a key by its canonical order.
+   *
+   * @param key the key
+   *
+   * @return the position of the key, or (-(insertion point) - 1) if it is not in this shape
+   */
+  int search(String key) {
+    return Arrays.binarySearch(keys, key, CJObject.CODE_POINT_ORDER);
+  }
+
+
+  /**
+   * Get the number of keys in this shape.
+   *
+   * @return the number of keys
+   */
+  int size() {
+    return keys.length;
+  }
+
+}
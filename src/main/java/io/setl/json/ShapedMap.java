@@ -0,0 +1,814 @@
+package io.setl.json;
+
+import java.util.AbstractCollection;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+
+/**
+ * The storage of an object which has a shape. The keys are held by the shared shape, and only the values are held by this. Reading values, navigating by
+ * key, and replacing the value of an existing key all work directly on the values.
+ *
+ * <p>The entry set, key set, and values collection also work directly on the values, and setting the value of an entry writes through to the values. Any
+ * other modification, and any navigable view of the map, first converts the storage into a TreeMap. From then on, every operation is passed to the TreeMap,
+ * so views remain consistent with the map. The conversion is thread safe, so that frozen and shared storage may be read by multiple threads.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+class ShapedMap extends AbstractMap<String, Canonical> implements NavigableMap<String, Canonical> {
+
+  /** The entry set, which works on the values until the storage is converted. */
+  private class EntrySet extends AbstractSet<Entry<String, Canonical>> {
+
+    @Override
+    public void clear() {
+      ShapedMap.this.clear();
+    }
+
+
+    @Override
+    public boolean contains(Object o) {
+      NavigableMap<String, Canonical> map = tree;
+      if (map != null) {
+        return map.entrySet().contains(o);
+      }
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      int i = shape.indexOf(e.getKey());
+      return i >= 0 && Objects.equals(values[i], e.getValue());
+    }
+
+
+    @Override
+    public Iterator<Entry<String, Canonical>> iterator() {
+      NavigableMap<String, Canonical> map = tree;
+      if (map != null) {
+        return map.entrySet().iterator();
+      }
+      return new ValuesIterator<>() {
+        @Override
+        Entry<String, Canonical> get(Entry<String, Canonical> entry) {
+          return entry;
+        }
+
+
+        @Override
+        Entry<String, Canonical> get(int position) {
+          return new ShapedEntry(position);
+        }
+      };
+    }
+
+
+    @Override
+    public int size() {
+      return ShapedMap.this.size();
+    }
+
+  }
+
+
+
+  /** The key set, which works on the shape until the storage is converted. */
+  private class KeySet extends AbstractSet<String> {
+
+    @Override
+    public void clear() {
+      ShapedMap.this.clear();
+    }
+
+
+    @Override
+    public boolean contains(Object o) {
+      return containsKey(o);
+    }
+
+
+    @Override
+    public Iterator<String> iterator() {
+      NavigableMap<String, Canonical> map = tree;
+      if (map != null) {
+        return map.keySet().iterator();
+      }
+      return new ValuesIterator<>() {
+        @Override
+        String get(Entry<String, Canonical> entry) {
+          return entry.getKey();
+        }
+
+
+        @Override
+        String get(int position) {
+          return shape.key(position);
+        }
+      };
+    }
+
+
+    @Override
+    public boolean remove(Object o) {
+      if (containsKey(o)) {
+        ShapedMap.this.remove(o);
+        return true;
+      }
+      return false;
+    }
+
+
+    @Override
+    public int size() {
+      return ShapedMap.this.size();
+    }
+
+  }
+
+
+
+  /** An entry which reads and writes its value through the map, so it remains valid if the storage is converted. */
+  private class ShapedEntry implements Entry<String, Canonical> {
+
+    private final int position;
+
+
+    ShapedEntry(int position) {
+      this.position = position;
+    }
+
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Entry)) {
+        return false;
+      }
+      Entry<?, ?> e = (Entry<?, ?>) o;
+      return getKey().equals(e.getKey()) && Objects.equals(getValue(), e.getValue());
+    }
+
+
+    @Override
+    public String getKey() {
+      return shape.key(position);
+    }
+
+
+    @Override
+    public Canonical getValue() {
+      NavigableMap<String, Canonical> map = tree;
+      return (map != null) ? map.get(getKey()) : values[position];
+    }
+
+
+    @Override
+    public int hashCode() {
+      return getKey().hashCode() ^ Objects.hashCode(getValue());
+    }
+
+
+    @Override
+    public Canonical setValue(Canonical value) {
+      return put(getKey(), value);
+    }
+
+
+    @Override
+    public String toString() {
+      return getKey() + "=" + getValue();
+    }
+
+  }
+
+
+
+  /** The values collection, which works on the values until the storage is converted. */
+  private class Values extends AbstractCollection<Canonical> {
+
+    @Override
+    public void clear() {
+      ShapedMap.this.clear();
+    }
+
+
+    @Override
+    public boolean contains(Object o) {
+      return containsValue(o);
+    }
+
+
+    @Override
+    public Iterator<Canonical> iterator() {
+      NavigableMap<String, Canonical> map = tree;
+      if (map != null) {
+        return map.values().iterator();
+      }
+      return new ValuesIterator<>() {
+        @Override
+        Canonical get(Entry<String, Canonical> entry) {
+          return entry.getValue();
+        }
+
+
+        @Override
+        Canonical get(int position) {
+          return values[position];
+        }
+      };
+    }
+
+
+    @Override
+    public int size() {
+      return ShapedMap.this.size();
+    }
+
+  }
+
+
+
+  /**
+   * An iterator over the positions in the shape. Once the storage is converted, the iteration is handed over to the TreeMap, continuing after the last key
+   * returned.
+   *
+   * @param <T> the type iterated over
+   */
+  private abstract class ValuesIterator<T> implements Iterator<T> {
+
+    /** The iterator over the TreeMap, once the iteration has been handed over. */
+    private Iterator<Entry<String, Canonical>> delegate = null;
+
+    private int last = -1;
+
+    private int next = 0;
+
+
+    /**
+     * Get the item for an entry in the TreeMap.
+     *
+     * @param entry the entry
+     *
+     * @return the item
+     */
+    abstract T get(Entry<String, Canonical> entry);
+
+    /**
+     * Get the item at a position.
+     *
+     * @param position the position
+     *
+     * @return the item
+     */
+    abstract T get(int position);
+
+
+    @Override
+    public boolean hasNext() {
+      if (delegate != null) {
+        return delegate.hasNext();
+      }
+      NavigableMap<String, Canonical> map = tree;
+      if (map != null) {
+        return !remaining(map).isEmpty();
+      }
+      return next < values.length;
+    }
+
+
+    @Override
+    public T next() {
+      if (delegate == null) {
+        NavigableMap<String, Canonical> map = tree;
+        if (map == null) {
+          if (next >= values.length) {
+            throw new NoSuchElementException();
+          }
+          last = next++;
+          return get(last);
+        }
+        delegate = remaining(map).entrySet().iterator();
+      }
+      return get(delegate.next());
+    }
+
+
+    /**
+     * Get the part of the TreeMap which has not yet been iterated over.
+     *
+     * @param map the TreeMap
+     *
+     * @return the remaining part of the map
+     */
+    private NavigableMap<String, Canonical> remaining(NavigableMap<String, Canonical> map) {
+      return (next == 0) ? map : map.tailMap(shape.key(next - 1), false);
+    }
+
+
+    @Override
+    public void remove() {
+      if (delegate != null) {
+        delegate.remove();
+        return;
+      }
+      if (last < 0) {
+        throw new IllegalStateException();
+      }
+      ShapedMap.this.remove(shape.key(last));
+      last = -1;
+    }
+
+  }
+
+
+
+  private final Shape shape;
+
+  private final Canonical[] values;
+
+  /** The storage once converted to a TreeMap. */
+  private volatile NavigableMap<String, Canonical> tree = null;
+
+
+  /**
+   * New instance.
+   *
+   * @param shape  the shape
+   * @param values the values, in the same order as the shape's keys
+   */
+  ShapedMap(Shape shape, Canonical[] values) {
+    this.shape = shape;
+    this.values = values;
+  }
+
+
+  @Override
+  public Entry<String, Canonical> ceilingEntry(String key) {
+    return tree().ceilingEntry(key);
+  }
+
+
+  @Override
+  public String ceilingKey(String key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.ceilingKey(key);
+    }
+    int i = shape.search(key);
+    return keyOrNull((i >= 0) ? i : -i - 1);
+  }
+
+
+  @Override
+  public void clear() {
+    tree().clear();
+  }
+
+
+  @Override
+  public Comparator<? super String> comparator() {
+    return CJObject.CODE_POINT_ORDER;
+  }
+
+
+  @Override
+  public boolean containsKey(Object key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.containsKey(key);
+    }
+    return shape.indexOf(key) >= 0;
+  }
+
+
+  @Override
+  public boolean containsValue(Object value) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.containsValue(value);
+    }
+    for (Canonical c : values) {
+      if (c.equals(value)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+
+  /**
+   * Create new storage holding copies of the values. Copying a value does not copy its storage.
+   *
+   * @return the new storage
+   */
+  NavigableMap<String, Canonical> copy() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      TreeMap<String, Canonical> copy = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+      copy.putAll(map);
+      copy.replaceAll((k, v) -> v.copy());
+      return copy;
+    }
+    Canonical[] copy = new Canonical[values.length];
+    for (int i = 0; i < copy.length; i++) {
+      copy[i] = values[i].copy();
+    }
+    return new ShapedMap(shape, copy);
+  }
+
+
+  /**
+   * Create new storage holding the same values, which is not affected by any view of this storage.
+   *
+   * @return the new storage
+   */
+  NavigableMap<String, Canonical> detach() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      TreeMap<String, Canonical> copy = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+      copy.putAll(map);
+      return copy;
+    }
+    return new ShapedMap(shape, values.clone());
+  }
+
+
+  @Override
+  public NavigableSet<String> descendingKeySet() {
+    return tree().descendingKeySet();
+  }
+
+
+  @Override
+  public NavigableMap<String, Canonical> descendingMap() {
+    return tree().descendingMap();
+  }
+
+
+  @Override
+  public Set<Entry<String, Canonical>> entrySet() {
+    return new EntrySet();
+  }
+
+
+  @Override
+  public boolean equals(Object o) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.equals(o);
+    }
+    if (o == this) {
+      return true;
+    }
+    if (!(o instanceof Map)) {
+      return false;
+    }
+    Map<?, ?> other = (Map<?, ?>) o;
+    if (other.size() != values.length) {
+      return false;
+    }
+    try {
+      for (int i = 0; i < values.length; i++) {
+        Canonical value = values[i];
+        String key = shape.key(i);
+        if (value == null ? !(other.get(key) == null && other.containsKey(key)) : !value.equals(other.get(key))) {
+          return false;
+        }
+      }
+    } catch (ClassCastException | NullPointerException e) {
+      return false;
+    }
+    return true;
+  }
+
+
+  @Override
+  public Entry<String, Canonical> firstEntry() {
+    return tree().firstEntry();
+  }
+
+
+  @Override
+  public String firstKey() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.firstKey();
+    }
+    return keyOrThrow(0);
+  }
+
+
+  @Override
+  public Entry<String, Canonical> floorEntry(String key) {
+    return tree().floorEntry(key);
+  }
+
+
+  @Override
+  public String floorKey(String key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.floorKey(key);
+    }
+    int i = shape.search(key);
+    return keyOrNull((i >= 0) ? i : -i - 2);
+  }
+
+
+  @Override
+  public void forEach(BiConsumer<? super String, ? super Canonical> action) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      map.forEach(action);
+      return;
+    }
+    for (int i = 0; i < values.length; i++) {
+      action.accept(shape.key(i), values[i]);
+    }
+  }
+
+
+  @Override
+  public Canonical get(Object key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.get(key);
+    }
+    int i = shape.indexOf(key);
+    return (i >= 0) ? values[i] : null;
+  }
+
+
+  /**
+   * Get the shape of this storage.
+   *
+   * @return the shape
+   */
+  Shape getShape() {
+    return shape;
+  }
+
+
+  /**
+   * Get the values in the order of the shape's keys. This must only be used when the storage has not been converted. The array may be modified.
+   *
+   * @return the values
+   */
+  Canonical[] getValues() {
+    return values;
+  }
+
+
+  @Override
+  public int hashCode() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.hashCode();
+    }
+    int h = 0;
+    for (int i = 0; i < values.length; i++) {
+      h += shape.key(i).hashCode() ^ Objects.hashCode(values[i]);
+    }
+    return h;
+  }
+
+
+  @Override
+  public SortedMap<String, Canonical> headMap(String toKey) {
+    return tree().headMap(toKey);
+  }
+
+
+  @Override
+  public NavigableMap<String, Canonical> headMap(String toKey, boolean inclusive) {
+    return tree().headMap(toKey, inclusive);
+  }
+
+
+  @Override
+  public Entry<String, Canonical> higherEntry(String key) {
+    return tree().higherEntry(key);
+  }
+
+
+  @Override
+  public String higherKey(String key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.higherKey(key);
+    }
+    int i = shape.search(key);
+    return keyOrNull((i >= 0) ? i + 1 : -i - 1);
+  }
+
+
+  @Override
+  public boolean isEmpty() {
+    return size() == 0;
+  }
+
+
+  /**
+   * Has this storage been converted to a TreeMap? If so, the shape and values are no longer used.
+   *
+   * @return true if converted
+   */
+  boolean isTree() {
+    return tree != null;
+  }
+
+
+  private String keyOrNull(int position) {
+    return (0 <= position && position < values.length) ? shape.key(position) : null;
+  }
+
+
+  private String keyOrThrow(int position) {
+    if (values.length == 0) {
+      throw new NoSuchElementException();
+    }
+    return shape.key(position);
+  }
+
+
+  @Override
+  public Set<String> keySet() {
+    return new KeySet();
+  }
+
+
+  @Override
+  public Entry<String, Canonical> lastEntry() {
+    return tree().lastEntry();
+  }
+
+
+  @Override
+  public String lastKey() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.lastKey();
+    }
+    return keyOrThrow(values.length - 1);
+  }
+
+
+  @Override
+  public Entry<String, Canonical> lowerEntry(String key) {
+    return tree().lowerEntry(key);
+  }
+
+
+  @Override
+  public String lowerKey(String key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      return map.lowerKey(key);
+    }
+    int i = shape.search(key);
+    return keyOrNull((i >= 0) ? i - 1 : -i - 2);
+  }
+
+
+  @Override
+  public NavigableSet<String> navigableKeySet() {
+    return tree().navigableKeySet();
+  }
+
+
+  @Override
+  public Entry<String, Canonical> pollFirstEntry() {
+    return tree().pollFirstEntry();
+  }
+
+
+  @Override
+  public Entry<String, Canonical> pollLastEntry() {
+    return tree().pollLastEntry();
+  }
+
+
+  @Override
+  public Canonical put(String key, Canonical value) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map == null) {
+      int i = shape.indexOf(key);
+      if (i >= 0) {
+        Canonical old = values[i];
+        values[i] = value;
+        return old;
+      }
+      map = tree();
+    }
+    return map.put(key, value);
+  }
+
+
+  @Override
+  public Canonical remove(Object key) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map == null) {
+      if (shape.indexOf(key) < 0) {
+        return null;
+      }
+      map = tree();
+    }
+    return map.remove(key);
+  }
+
+
+  @Override
+  public void replaceAll(BiFunction<? super String, ? super Canonical, ? extends Canonical> function) {
+    NavigableMap<String, Canonical> map = tree;
+    if (map != null) {
+      map.replaceAll(function);
+      return;
+    }
+    for (int i = 0; i < values.length; i++) {
+      values[i] = function.apply(shape.key(i), values[i]);
+    }
+  }
+
+
+  @Override
+  public int size() {
+    NavigableMap<String, Canonical> map = tree;
+    return (map != null) ? map.size() : values.length;
+  }
+
+
+  @Override
+  public NavigableMap<String, Canonical> subMap(String fromKey, boolean fromInclusive, String toKey, boolean toInclusive) {
+    return tree().subMap(fromKey, fromInclusive, toKey, toInclusive);
+  }
+
+
+  @Override
+  public SortedMap<String, Canonical> subMap(String fromKey, String toKey) {
+    return tree().subMap(fromKey, toKey);
+  }
+
+
+  @Override
+  public SortedMap<String, Canonical> tailMap(String fromKey) {
+    return tree().tailMap(fromKey);
+  }
+
+
+  @Override
+  public NavigableMap<String, Canonical> tailMap(String fromKey, boolean inclusive) {
+    return tree().tailMap(fromKey, inclusive);
+  }
+
+
+  /**
+   * Get the storage as a TreeMap, converting it if necessary.
+   *
+   * @return the TreeMap
+   */
+  private NavigableMap<String, Canonical> tree() {
+    NavigableMap<String, Canonical> map = tree;
+    if (map == null) {
+      synchronized (this) {
+        map = tree;
+        if (map == null) {
+          map = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+          for (int i = 0; i < values.length; i++) {
+            map.put(shape.key(i), values[i]);
+          }
+          tree = map;
+        }
+      }
+    }
+    return map;
+  }
+
+
+  /**
+   * Get the value at a position in the shape. This must only be used when the storage has not been converted.
+   *
+   * @param position the position
+   *
+   * @return the value
+   */
+  Canonical valueAt(int position) {
+    return values[position];
+  }
+
+
+  @Override
+  public Collection<Canonical> values() {
+    return new Values();
+  }
+
+}
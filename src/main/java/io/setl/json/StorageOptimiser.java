@@ -0,0 +1,200 @@
+package io.setl.json;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.IntStream;
+import jakarta.json.JsonValue.ValueType;
+
+import io.setl.json.primitive.MemorySize;
+
+/**
+ * Reduce the memory used by canonical trees by ensuring equal values have a single representation in memory. Strings and numbers are always shared. Object
+ * keys are interned. Structures which are frozen are immutable, so equal frozen structures are shared too.
+ *
+ * <p>A single optimiser may be used on many trees, in which case values are shared between all the trees. When processing in parallel, a structure which is
+ * not frozen must not appear more than once in the trees.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class StorageOptimiser {
+
+  /** Structures with at least this many members have their members processed in parallel, when processing in parallel. */
+  private static final int PARALLEL_THRESHOLD = Integer.getInteger(StorageOptimiser.class.getPackageName() + ".optimiseParallelThreshold", 256);
+
+
+  /**
+   * Estimate the memory used by a value which will no longer be referenced.
+   *
+   * @param value  the value
+   * @param isDeep if true, include the members of structures, otherwise the members are assumed to be shared
+   *
+   * @return the estimated number of bytes
+   */
+  private static long estimateSize(Canonical value, boolean isDeep) {
+    if (isDeep) {
+      return value.estimateRetainedSize();
+    }
+    switch (value.getValueType()) {
+      case ARRAY:
+        return ((CJArray) value).estimateStructureSize();
+      case OBJECT:
+        return ((CJObject) value).estimateStructureSize();
+      default:
+        return value.estimateRetainedSize();
+    }
+  }
+
+
+  private final LongAdder bytesSaved = new LongAdder();
+
+  private final boolean isParallel;
+
+  private final Map<String, String> keys;
+
+  private final Map<Canonical, Canonical> values;
+
+  private boolean isFreezing = false;
+
+
+  /** New instance which processes trees on the calling thread. */
+  public StorageOptimiser() {
+    this(false);
+  }
+
+
+  /**
+   * New instance.
+   *
+   * @param isParallel if true, the members of large structures are processed in parallel on the common fork-join pool
+   */
+  public StorageOptimiser(boolean isParallel) {
+    this.isParallel = isParallel;
+    if (isParallel) {
+      keys = new ConcurrentHashMap<>();
+      values = new ConcurrentHashMap<>();
+    } else {
+      keys = new HashMap<>();
+      values = new HashMap<>();
+    }
+  }
+
+
+  /**
+   * Get the estimated number of bytes which have been released by this optimiser. This assumes the duplicate values were not referenced from elsewhere.
+   *
+   * @return the estimated number of bytes
+   */
+  public long getBytesSaved() {
+    return bytesSaved.sum();
+  }
+
+
+  /**
+   * Will this optimiser freeze structures? If so, every structure is frozen after its members have been optimised, so that equal structures can be shared.
+   *
+   * @return true if structures are frozen
+   */
+  public boolean isFreezing() {
+    return isFreezing;
+  }
+
+
+  /**
+   * Get the single representation of an object key.
+   *
+   * @param key the key
+   *
+   * @return the key to use
+   */
+  String key(String key) {
+    String single = keys.putIfAbsent(key, key);
+    if (single == null) {
+      return key;
+    }
+    if (single != key) {
+      bytesSaved.add(MemorySize.ofString(key));
+    }
+    return single;
+  }
+
+
+  /**
+   * Optimise the storage of a tree. Structures which are frozen are not changed, but may be replaced by an equal structure within a containing structure
+   * that is not frozen.
+   *
+   * @param value the root of the tree
+   *
+   * @return the single representation of the root, which is only different from the input if the root is frozen or this is freezing
+   */
+  public Canonical optimise(Canonical value) {
+    return single(value);
+  }
+
+
+  /**
+   * Replace every value in an array with its single representation.
+   *
+   * @param members the values
+   */
+  void optimise(Canonical[] members) {
+    if (isParallel && members.length >= PARALLEL_THRESHOLD) {
+      IntStream.range(0, members.length).parallel().forEach(i -> members[i] = single(members[i]));
+    } else {
+      for (int i = 0; i < members.length; i++) {
+        members[i] = single(members[i]);
+      }
+    }
+  }
+
+
+  /**
+   * Set whether this optimiser freezes structures. If so, every structure is frozen after its members have been optimised, so that equal structures can be
+   * shared. The default is false.
+   *
+   * @param isFreezing true if structures should be frozen
+   */
+  public void setFreezing(boolean isFreezing) {
+    this.isFreezing = isFreezing;
+  }
+
+
+  /**
+   * Get the single representation of a value, optimising its contents if it is a structure that is not frozen.
+   *
+   * @param value the value
+   *
+   * @return the value to use
+   */
+  private Canonical single(Canonical value) {
+    ValueType type = value.getValueType();
+    boolean isDeep = true;
+    if (!value.isFrozen()) {
+      if (type == ValueType.ARRAY) {
+        ((CJArray) value).optimiseStorage(this);
+      } else {
+        ((CJObject) value).optimiseStorage(this);
+      }
+      if (!isFreezing) {
+        return value;
+      }
+      value.freeze();
+      // the members are now shared, so only the structure itself can be saved
+      isDeep = false;
+    }
+    if (type == ValueType.TRUE || type == ValueType.FALSE || type == ValueType.NULL) {
+      return value;
+    }
+
+    Canonical single = values.putIfAbsent(value, value);
+    if (single == null) {
+      return value;
+    }
+    if (single != value) {
+      bytesSaved.add(estimateSize(value, isDeep));
+    }
+    return single;
+  }
+
+}
@@ -0,0 +1,165 @@
+package io.setl.json;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import jakarta.json.JsonValue.ValueType;
+
+import io.setl.json.exception.JsonIOException;
+import io.setl.json.io.Formatter;
+import io.setl.json.io.NoOpFormatter;
+import io.setl.json.io.PrettyFormatter;
+import io.setl.json.primitive.CJBase;
+import io.setl.json.primitive.CJNull;
+
+/**
+ * Serialize a tree of canonical values. As the tree is already in canonical order, it is written directly from the backing collections without any of the
+ * checks a generator would apply, and without copying. The tree is walked iteratively so arbitrarily deep structures may be written.
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public final class TreeWriter {
+
+  /** The small structure limit used when creating pretty output. */
+  static final int PRETTY_SMALL_STRUCTURE_LIMIT = 20;
+
+
+
+  /** A structure which is being written. */
+  private static class Frame {
+
+    /** The elements of an array, or null if this is an object. */
+    final Iterator<Canonical> elements;
+
+    /** The members of an object, or null if this is an array. */
+    final CJObject.Cursor entries;
+
+    /** Has the first member been written?. */
+    boolean writtenFirst = false;
+
+
+    Frame(Iterator<Canonical> elements, CJObject.Cursor entries) {
+      this.elements = elements;
+      this.entries = entries;
+    }
+
+
+    void writeSeparator(Formatter formatter) {
+      if (writtenFirst) {
+        formatter.writeComma();
+      } else {
+        writtenFirst = true;
+      }
+    }
+
+  }
+
+
+  /**
+   * Create the canonical representation of a value.
+   *
+   * @param value the value
+   *
+   * @return the canonical JSON
+   */
+  public static String toCanonicalString(Canonical value) {
+    StringBuilder buf = new StringBuilder();
+    write(new NoOpFormatter(buf), value);
+    return buf.toString();
+  }
+
+
+  /**
+   * Create the pretty representation of a value.
+   *
+   * @param value the value
+   *
+   * @return the pretty JSON
+   */
+  public static String toPrettyString(Canonical value) {
+    StringBuilder buf = new StringBuilder();
+    write(new PrettyFormatter(buf, PRETTY_SMALL_STRUCTURE_LIMIT), value);
+    return buf.toString();
+  }
+
+
+  /**
+   * Write a value to a formatter. The formatter is neither flushed nor closed.
+   *
+   * @param formatter the formatter
+   * @param value     the value
+   */
+  public static void write(Formatter formatter, Canonical value) {
+    ArrayDeque<Frame> stack = new ArrayDeque<>();
+    writeValue(formatter, stack, value);
+    while (!stack.isEmpty()) {
+      Frame frame = stack.peek();
+      Canonical next;
+      if (frame.entries != null) {
+        if (!frame.entries.next()) {
+          formatter.writeObjectEnd();
+          stack.pop();
+          continue;
+        }
+        frame.writeSeparator(formatter);
+        formatter.writeKey(frame.entries.getKey());
+        formatter.writeColon();
+        next = frame.entries.getValue();
+      } else {
+        if (!frame.elements.hasNext()) {
+          formatter.writeArrayEnd();
+          stack.pop();
+          continue;
+        }
+        next = frame.elements.next();
+        frame.writeSeparator(formatter);
+      }
+      writeValue(formatter, stack, next);
+    }
+  }
+
+
+  /**
+   * Write the canonical representation of a value to an appendable.
+   *
+   * @param appendable the output
+   * @param value      the value
+   *
+   * @throws IOException if the output fails
+   */
+  public static void writeTo(Appendable appendable, Canonical value) throws IOException {
+    try {
+      write(new NoOpFormatter(appendable), value);
+    } catch (JsonIOException e) {
+      throw e.cause();
+    }
+  }
+
+
+  /**
+   * Write a primitive value, or start writing a structure.
+   *
+   * @param formatter the formatter
+   * @param stack     the structures being written
+   * @param value     the value
+   */
+  private static void writeValue(Formatter formatter, ArrayDeque<Frame> stack, Canonical value) {
+    if (value == null) {
+      formatter.write(CJNull.NULL);
+    } else if (value instanceof CJBase) {
+      formatter.write((CJBase) value);
+    } else if (value.getValueType() == ValueType.ARRAY) {
+      formatter.writeArrayStart();
+      stack.push(new Frame(((CJArray) value).canonicalIterator(), null));
+    } else {
+      formatter.writeObjectStart();
+      stack.push(new Frame(null, ((CJObject) value).canonicalCursor()));
+    }
+  }
+
+
+  private TreeWriter() {
+    // do nothing
+  }
+
+}
@@ -3,11 +3,15 @@ package io.setl.json.builder;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import jakarta.json.JsonArrayBuilder;
+import jakarta.json.JsonConfig.KeyStrategy;
 import jakarta.json.JsonObjectBuilder;
 import jakarta.json.JsonValue;
 
 import io.setl.json.CJObject;
+import io.setl.json.Canonical;
 import io.setl.json.FormattedJson;
+import io.setl.json.MemberList;
+import io.setl.json.primitive.CJNull;
 
 /**
  * A builder for JSON Objects.
@@ -16,7 +20,11 @@ import io.setl.json.FormattedJson;
  */
 public class ObjectBuilder implements JsonObjectBuilder, FormattedJson {
 
-  private final CJObject object = new CJObject();
+  /** The members of the object being built. */
+  private final MemberList members = new MemberList();
+
+  /** The object built from the current members, if it has been built. */
+  private CJObject built;
 
 
   /** New instance. */
@@ -27,116 +35,116 @@ public class ObjectBuilder implements JsonObjectBuilder, FormattedJson {
 
   @Override
   public ObjectBuilder add(String name, JsonValue value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.cast(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, String value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, BigInteger value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, BigDecimal value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, int value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, long value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, double value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, boolean value) {
-    object.put(name, value);
-    return this;
+    return put(name, Canonical.create(value));
   }
 
 
   @Override
   public ObjectBuilder add(String name, JsonObjectBuilder builder) {
-    object.put(name, builder.build());
-    return this;
+    return put(name, Canonical.cast(builder.build()));
   }
 
 
   @Override
   public ObjectBuilder add(String name, JsonArrayBuilder builder) {
-    object.put(name, builder.build());
-    return this;
+    return put(name, Canonical.cast(builder.build()));
   }
 
 
   @Override
   public ObjectBuilder addAll(JsonObjectBuilder builder) {
-    object.putAll(builder.build());
+    builder.build().forEach((k, v) -> put(k, Canonical.cast(v)));
     return this;
   }
 
 
   @Override
   public ObjectBuilder addNull(String name) {
-    object.put(name);
-    return this;
+    return put(name, CJNull.NULL);
   }
 
 
   @Override
   public CJObject build() {
-    return object;
+    if (built == null) {
+      built = members.toObject(KeyStrategy.LAST);
+    }
+    return built;
+  }
+
+
+  private ObjectBuilder put(String name, Canonical value) {
+    members.put(name, value);
+    built = null;
+    return this;
   }
 
 
   @Override
   public ObjectBuilder remove(String name) {
-    object.remove(name);
+    members.remove(name);
+    built = null;
     return this;
   }
 
 
   @Override
   public String toCanonicalString() {
-    return object.toCanonicalString();
+    return build().toCanonicalString();
   }
 
 
   @Override
   public String toPrettyString() {
-    return object.toPrettyString();
+    return build().toPrettyString();
   }
 
 
   @Override
   public String toString() {
-    return object.toString();
+    return build().toString();
   }
 
 }
@@ -3,25 +3,56 @@ package io.setl.json.io;
 import java.io.Closeable;
 import java.io.Flushable;
 import java.io.IOException;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.Arrays;
+import jakarta.json.stream.JsonGenerationException;
 
 import io.setl.json.exception.JsonIOException;
 
 /**
  * An equivalent to a regular Appendable which throws JsonIOException when an IOException would occur.
  *
+ * <p>Small structures are written on a single line. To determine whether a structure is small, its output is held in a look-ahead buffer until either the
+ * structure ends or its output exceeds the small structure limit. A single buffer is shared by all the nested structures currently being considered. Within
+ * the buffer, the control codes U+0000, U+0001 and U+0002 mark the points where the indentation decreases, stays the same or increases. If the structure
+ * turns out to be small they are replaced by spaces, otherwise they are replaced by a new line and the appropriate indentation.</p>
+ *
  * @author Simon Greatrix on 20/11/2020.
  */
 public class AppendableOutput implements PrettyOutput {
 
+  /** New line followed by indentation. Sub-sequences of this are used for indentation. */
+  private static final String INDENT = "\n" + " ".repeat(128);
+
+
   /** Output. */
   private final Appendable appendable;
 
   /** Maximum size of a small structure, not including the end marker. */
   private final int smallStructureLimit;
 
+  /** The look-ahead buffer for small structures. */
+  private char[] buffer;
+
+  /** The look-ahead buffer wrapped as a character sequence, used for appendables which cannot accept a char array. */
+  private CharBuffer bufferSequence;
+
   /** Current level of indentation. */
   private int indent = 0;
 
+  /** For each structure held in the buffer, is it an object?. */
+  private boolean[] isObject = new boolean[8];
+
+  /** Number of characters in the look-ahead buffer. */
+  private int length = 0;
+
+  /** Number of structures held in the buffer. */
+  private int levels = 0;
+
+  /** For each structure held in the buffer, the index at which it starts. */
+  private int[] starts = new int[8];
+
 
   /**
    * Create a pretty output writing to the specified Appendable.
@@ -41,26 +72,32 @@ public class AppendableOutput implements PrettyOutput {
 
   @Override
   public PrettyOutput append(CharSequence csq) {
-    try {
-      appendable.append(csq);
-    } catch (IOException exception) {
-      throw new JsonIOException(exception);
-    }
-    return this;
+    return append(csq, 0, csq.length());
   }
 
 
   @Override
   public PrettyOutput append(char[] csq, int start, int end) {
-    for (int i = start; i < end; i++) {
-      append(csq[i]);
+    if (levels > 0 && reserve(end - start)) {
+      System.arraycopy(csq, start, buffer, length, end - start);
+      length += end - start;
+      return this;
     }
+    writeOut(csq, start, end);
     return this;
   }
 
 
   @Override
   public PrettyOutput append(CharSequence csq, int start, int end) {
+    if (levels > 0 && reserve(end - start)) {
+      for (int i = start; i < end; i++) {
+        buffer[length++] = csq.charAt(i);
+      }
+      return this;
+    }
+
+    // Control codes only arise from structure markers, so sequences can be written directly
     try {
       appendable.append(csq, start, end);
     } catch (IOException exception) {
@@ -72,57 +109,107 @@ public class AppendableOutput implements PrettyOutput {
 
   @Override
   public PrettyOutput append(char c) {
-    try {
-      if (c < 3) {
-        indent += (c - 1);
-        appendable.append('\n');
-        for (int i = 0; i < indent; i++) {
-          appendable.append(' ').append(' ');
-        }
-      } else {
-        appendable.append(c);
-      }
+    if (levels > 0 && reserve(1)) {
+      buffer[length++] = c;
       return this;
+    }
+    try {
+      writeOut(c);
     } catch (IOException exception) {
       throw new JsonIOException(exception);
     }
+    return this;
   }
 
 
   @Override
   public PrettyOutput append(Special special) {
-    PrettyBuffer buffer;
     switch (special) {
       case END_ARRAY:
-        return append('\u0000').append(']');
+        return appendEnd(false);
       case END_OBJECT:
-        return append('\u0000').append('}');
+        return appendEnd(true);
       case SEPARATOR:
         return append(',').append('\u0001');
       case START_ARRAY:
-        if (smallStructureLimit > 0) {
-          buffer = new PrettyBuffer(this, smallStructureLimit, Special.END_ARRAY);
-          buffer.append('[').append('\u0002');
-          return buffer;
-        } else {
-          return append('[').append('\u0002');
-        }
+        return appendStart(false);
       case START_OBJECT:
-        if (smallStructureLimit > 0) {
-          buffer = new PrettyBuffer(this, smallStructureLimit, Special.END_OBJECT);
-          buffer.append('{').append('\u0002');
-          return buffer;
-        } else {
-          return append('{').append('\u0002');
-        }
+        return appendStart(true);
       default:
         throw new InternalError("Unrecognised enumeration: " + special);
     }
   }
 
 
+  private PrettyOutput appendEnd(boolean endObject) {
+    char endSymbol = endObject ? '}' : ']';
+    if (levels == 0) {
+      // structure is not small, so just output
+      return append('\u0000').append(endSymbol);
+    }
+
+    levels--;
+    if (isObject[levels] != endObject) {
+      Special expected = isObject[levels] ? Special.END_OBJECT : Special.END_ARRAY;
+      throw new IllegalStateException((endObject ? Special.END_OBJECT : Special.END_ARRAY) + " encountered without matching start. Expected: " + expected);
+    }
+
+    int start = starts[levels];
+    if (length - start == 2) {
+      // special rule for empty structures
+      length = start + 1;
+    } else {
+      for (int i = start; i < length; i++) {
+        if (buffer[i] < 3) {
+          buffer[i] = ' ';
+        }
+      }
+      // The buffer always has room for at least two more characters.
+      buffer[length++] = ' ';
+    }
+
+    if (levels == 0) {
+      // The outermost small structure is complete. It contains no control codes, so can be output as is.
+      int end = length;
+      length = 0;
+      writeOut(buffer, 0, end);
+      return append(endSymbol);
+    }
+
+    // The completed structure is now part of its parent, which may no longer be small.
+    if (length - starts[levels - 1] > smallStructureLimit) {
+      expandAll();
+    }
+    return append(endSymbol);
+  }
+
+
+  private PrettyOutput appendStart(boolean startObject) {
+    char startSymbol = startObject ? '{' : '[';
+    if (smallStructureLimit == 0) {
+      return append(startSymbol).append('\u0002');
+    }
+
+    if (buffer == null) {
+      buffer = new char[2 * smallStructureLimit + 4];
+      bufferSequence = CharBuffer.wrap(buffer);
+    }
+    if (levels == starts.length) {
+      starts = Arrays.copyOf(starts, 2 * levels);
+      isObject = Arrays.copyOf(isObject, 2 * levels);
+    }
+    starts[levels] = length;
+    isObject[levels] = startObject;
+    levels++;
+    return append(startSymbol).append('\u0002');
+  }
+
+
   @Override
   public void close() {
+    if (levels > 0) {
+      throw new JsonGenerationException("Generation terminated within structure");
+    }
     if (appendable instanceof Closeable) {
       try {
         ((Closeable) appendable).close();
@@ -133,8 +220,21 @@ public class AppendableOutput implements PrettyOutput {
   }
 
 
+  /** The structures held in the look-ahead buffer are not small, so write out their contents with full formatting. */
+  private void expandAll() {
+    int end = length;
+    levels = 0;
+    length = 0;
+    writeOut(buffer, 0, end);
+  }
+
+
   @Override
   public PrettyOutput flush() {
+    // flushing means we can no longer consider whether structures are small
+    if (levels > 0) {
+      expandAll();
+    }
     if (appendable instanceof Flushable) {
       try {
         ((Flushable) appendable).flush();
@@ -145,4 +245,87 @@ public class AppendableOutput implements PrettyOutput {
     return this;
   }
 
+
+  /**
+   * Reserve space in the look-ahead buffer for the innermost structure. If the structure would exceed the small structure limit, all the buffered structures
+   * are expanded.
+   *
+   * @param count the number of characters required
+   *
+   * @return true if the space was reserved, false if the characters should be written out
+   */
+  private boolean reserve(int count) {
+    if (length - starts[levels - 1] + count > smallStructureLimit) {
+      expandAll();
+      return false;
+    }
+    if (length + count + 2 > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(2 * buffer.length, length + count + 2));
+      bufferSequence = CharBuffer.wrap(buffer);
+    }
+    return true;
+  }
+
+
+  private void writeIndent() throws IOException {
+    int required = 1 + 2 * indent;
+    appendable.append(INDENT, 0, Math.min(required, INDENT.length()));
+    required -= INDENT.length();
+    while (required > 0) {
+      appendable.append(INDENT, 1, 1 + Math.min(required, INDENT.length() - 1));
+      required -= INDENT.length() - 1;
+    }
+  }
+
+
+  private void writeOut(char c) throws IOException {
+    if (c < 3) {
+      indent += (c - 1);
+      writeIndent();
+    } else {
+      appendable.append(c);
+    }
+  }
+
+
+  /**
+   * Write characters to the output, converting control codes to new lines and indentation.
+   *
+   * @param chars the characters
+   * @param start the index of the first character to write
+   * @param end   the index after the last character to write
+   */
+  private void writeOut(char[] chars, int start, int end) {
+    try {
+      int runStart = start;
+      for (int i = start; i < end; i++) {
+        char c = chars[i];
+        if (c < 3) {
+          writeRun(chars, runStart, i);
+          writeOut(c);
+          runStart = i + 1;
+        }
+      }
+      writeRun(chars, runStart, end);
+    } catch (IOException exception) {
+      throw new JsonIOException(exception);
+    }
+  }
+
+
+  private void writeRun(char[] chars, int start, int end) throws IOException {
+    if (start == end) {
+      return;
+    }
+    if (appendable instanceof Writer) {
+      ((Writer) appendable).write(chars, start, end - start);
+    } else if (appendable instanceof StringBuilder) {
+      ((StringBuilder) appendable).append(chars, start, end - start);
+    } else if (chars == buffer) {
+      appendable.append(bufferSequence, start, end);
+    } else {
+      appendable.append(CharBuffer.wrap(chars), start, end);
+    }
+  }
+
 }
@@ -0,0 +1,355 @@
+package io.setl.json.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousByteChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An output stream which writes to an asynchronous channel. Writing to this stream never blocks. Filled buffers are queued and written to the channel one
+ * at a time, and are returned to a ring of free buffers once written. If the channel is slower than the writer, extra buffers are allocated and the stream
+ * reports that it is back-pressured. A writer on an event loop should then wait for {@link #getWritable()} to complete before continuing.
+ *
+ * <p>The number of queued buffers is limited. A write which would queue more buffers than the limit fails with an IOException, so a writer which ignores
+ * back-pressure cannot exhaust the heap.</p>
+ *
+ * <p>Closing the stream closes the channel once all the queued output has been written. The result of the whole write is available from {@link
+ * #getCompletion()}.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class AsyncChannelOutputStream extends OutputStream {
+
+  /** Default maximum number of buffers waiting to be written. */
+  static final int DEFAULT_QUEUE_LIMIT = Integer.getInteger(AsyncChannelOutputStream.class.getPackageName() + ".channelQueueLimit", 64);
+
+  /** Handler for the completion of a single write to the channel. */
+  private class Handler implements CompletionHandler<Integer, ByteBuffer> {
+
+    @Override
+    public void completed(Integer result, ByteBuffer buffer) {
+      CompletableFuture<Void> toComplete = null;
+      synchronized (lock) {
+        queuedBytes -= result;
+        if (!buffer.hasRemaining()) {
+          queue.removeFirst();
+          if (free.size() < ringSize) {
+            buffer.clear();
+            free.addLast(buffer);
+          }
+        }
+        if (queuedBytes <= lowWater && !writable.isDone()) {
+          toComplete = writable;
+        }
+        isWriting = false;
+      }
+      if (toComplete != null) {
+        toComplete.complete(null);
+      }
+      startWrite();
+    }
+
+
+    @Override
+    public void failed(Throwable exc, ByteBuffer buffer) {
+      CompletableFuture<Void> toFail;
+      synchronized (lock) {
+        failure = (exc instanceof IOException) ? (IOException) exc : new IOException("Channel write failed", exc);
+        queue.clear();
+        queuedBytes = 0;
+        isWriting = false;
+        toFail = writable;
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        failure.addSuppressed(e);
+      }
+      toFail.completeExceptionally(failure);
+      completion.completeExceptionally(failure);
+    }
+
+  }
+
+
+
+  private final int bufferSize;
+
+  private final AsynchronousByteChannel channel;
+
+  /** Completes when all output has been written and the channel closed. */
+  private final CompletableFuture<Void> completion = new CompletableFuture<>();
+
+  /** Free buffers. */
+  private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+
+  private final Handler handler = new Handler();
+
+  /** Number of queued bytes above which this stream is back-pressured. */
+  private final long highWater;
+
+  /** Lock guarding the queue and the state shared with the completion handler. */
+  private final Object lock = new Object();
+
+  /** Number of queued bytes at or below which this stream stops being back-pressured. */
+  private final long lowWater;
+
+  /** Buffers waiting to be written. The first buffer is the one currently being written. */
+  private final ArrayDeque<ByteBuffer> queue = new ArrayDeque<>();
+
+  /** Maximum number of buffers waiting to be written. */
+  private final int queueLimit;
+
+  /** Maximum number of free buffers retained. */
+  private final int ringSize;
+
+  /** The buffer currently being filled. */
+  private ByteBuffer current;
+
+  /** The first failure reported by the channel. Volatile so it can be checked on every write without taking the lock. */
+  private volatile IOException failure = null;
+
+  /** Has the channel been closed?. */
+  private boolean isChannelClosed = false;
+
+  /** Has this stream been closed?. */
+  private boolean isClosed = false;
+
+  /** Is a write to the channel in progress?. */
+  private boolean isWriting = false;
+
+  /** Number of bytes waiting to be written. */
+  private long queuedBytes = 0;
+
+  /** Completes when this stream stops being back-pressured. */
+  private CompletableFuture<Void> writable = CompletableFuture.completedFuture(null);
+
+
+  /**
+   * New instance with the default number and size of buffers.
+   *
+   * @param channel the channel to write to
+   */
+  public AsyncChannelOutputStream(AsynchronousByteChannel channel) {
+    this(channel, ChannelOutputStream.DEFAULT_RING_SIZE, ChannelOutputStream.DEFAULT_BUFFER_SIZE);
+  }
+
+
+  /**
+   * New instance with the default queue limit. The stream is back-pressured when more than the ring size's worth of buffers are waiting to be written.
+   *
+   * @param channel    the channel to write to
+   * @param ringSize   the number of buffers retained for reuse
+   * @param bufferSize the size of each buffer
+   */
+  public AsyncChannelOutputStream(AsynchronousByteChannel channel, int ringSize, int bufferSize) {
+    this(channel, ringSize, bufferSize, Math.max(ringSize, DEFAULT_QUEUE_LIMIT));
+  }
+
+
+  /**
+   * New instance. The stream is back-pressured when more than the ring size's worth of buffers are waiting to be written.
+   *
+   * @param channel    the channel to write to
+   * @param ringSize   the number of buffers retained for reuse
+   * @param bufferSize the size of each buffer
+   * @param queueLimit the maximum number of buffers waiting to be written, which must be at least the ring size
+   */
+  public AsyncChannelOutputStream(AsynchronousByteChannel channel, int ringSize, int bufferSize, int queueLimit) {
+    if (ringSize < 1 || bufferSize < 1) {
+      throw new IllegalArgumentException("Ring size and buffer size must be positive, not " + ringSize + " and " + bufferSize);
+    }
+    if (queueLimit < ringSize) {
+      throw new IllegalArgumentException("Queue limit must be at least the ring size, not " + queueLimit);
+    }
+    this.channel = channel;
+    this.ringSize = ringSize;
+    this.queueLimit = queueLimit;
+    this.bufferSize = bufferSize;
+    highWater = (long) ringSize * bufferSize;
+    lowWater = highWater / 2;
+    current = ByteBuffer.allocate(bufferSize);
+  }
+
+
+  private void checkOpen() throws IOException {
+    IOException e = failure;
+    if (e != null) {
+      throw new IOException("Channel write failed", e);
+    }
+    if (isClosed) {
+      throw new IOException("Stream is closed");
+    }
+  }
+
+
+  /**
+   * Check that another buffer may be queued.
+   *
+   * @throws IOException if the queue is full because the writer has not respected back-pressure
+   */
+  private void checkQueue() throws IOException {
+    synchronized (lock) {
+      if (queue.size() >= queueLimit) {
+        throw new IOException("Output queue is full, as more than " + queueLimit + " buffers are waiting to be written");
+      }
+    }
+  }
+
+
+  /**
+   * Close this stream. The channel is closed once all the queued output has been written. This method does not wait for that to happen.
+   */
+  @Override
+  public void close() {
+    if (isClosed) {
+      return;
+    }
+    submit();
+    synchronized (lock) {
+      isClosed = true;
+    }
+    startWrite();
+  }
+
+
+  /**
+   * Queue all the output written so far to be written to the channel. This method does not wait for the output to be written.
+   *
+   * @throws IOException if the channel has failed
+   */
+  @Override
+  public void flush() throws IOException {
+    checkOpen();
+    checkQueue();
+    submit();
+  }
+
+
+  /**
+   * Get a future which completes when all output has been written and the channel has been closed, or fails if the channel fails.
+   *
+   * @return the future
+   */
+  public CompletableFuture<Void> getCompletion() {
+    return completion;
+  }
+
+
+  /**
+   * Get a future which completes when this stream is no longer back-pressured.
+   *
+   * @return the future
+   */
+  public CompletableFuture<Void> getWritable() {
+    synchronized (lock) {
+      return writable;
+    }
+  }
+
+
+  /**
+   * Is the channel slower than the writer? If so, the writer should wait for {@link #getWritable()} to complete before writing more.
+   *
+   * @return true if too much output is waiting to be written
+   */
+  public boolean isBackPressured() {
+    synchronized (lock) {
+      return queuedBytes > highWater;
+    }
+  }
+
+
+  /**
+   * Get a buffer with space available, queueing the current buffer.
+   *
+   * @return the buffer
+   *
+   * @throws IOException if the queue is full
+   */
+  private ByteBuffer nextBuffer() throws IOException {
+    checkQueue();
+    submit();
+    return current;
+  }
+
+
+  /** Start the next write if the channel is idle, or close the channel if there is nothing left to write. */
+  private void startWrite() {
+    ByteBuffer buffer;
+    synchronized (lock) {
+      if (isWriting || isChannelClosed || failure != null) {
+        return;
+      }
+      buffer = queue.peekFirst();
+      if (buffer != null) {
+        isWriting = true;
+      } else if (isClosed) {
+        isChannelClosed = true;
+      } else {
+        return;
+      }
+    }
+
+    if (buffer != null) {
+      channel.write(buffer, buffer, handler);
+      return;
+    }
+    try {
+      channel.close();
+      completion.complete(null);
+    } catch (IOException e) {
+      completion.completeExceptionally(e);
+    }
+  }
+
+
+  /** Queue the current buffer, if it contains anything, and take a free buffer to replace it. */
+  private void submit() {
+    if (current.position() == 0) {
+      return;
+    }
+    current.flip();
+    synchronized (lock) {
+      queue.addLast(current);
+      queuedBytes += current.remaining();
+      if (queuedBytes > highWater && writable.isDone()) {
+        writable = new CompletableFuture<>();
+      }
+      current = free.pollFirst();
+    }
+    if (current == null) {
+      current = ByteBuffer.allocate(bufferSize);
+    }
+    startWrite();
+  }
+
+
+  @Override
+  public void write(int b) throws IOException {
+    checkOpen();
+    if (!current.hasRemaining()) {
+      nextBuffer();
+    }
+    current.put((byte) b);
+  }
+
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    checkOpen();
+    while (length > 0) {
+      if (!current.hasRemaining()) {
+        nextBuffer();
+      }
+      int size = Math.min(length, current.remaining());
+      current.put(bytes, offset, size);
+      offset += size;
+      length -= size;
+    }
+  }
+
+}
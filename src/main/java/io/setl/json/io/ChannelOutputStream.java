@@ -0,0 +1,190 @@
+package io.setl.json.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * An output stream which writes to a blocking channel. Output is collected in a ring of buffers. When every buffer is full, they are all written to the
+ * channel with a single gathering write where the channel supports it. As the writes block, a slow channel slows down the writer.
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ChannelOutputStream extends OutputStream {
+
+  /** Default size of each buffer in the ring. */
+  static final int DEFAULT_BUFFER_SIZE = Integer.getInteger(ChannelOutputStream.class.getPackageName() + ".channelBufferSize", 8192);
+
+  /** Default number of buffers in the ring. */
+  static final int DEFAULT_RING_SIZE = Integer.getInteger(ChannelOutputStream.class.getPackageName() + ".channelRingSize", 4);
+
+
+  private final ByteBuffer[] buffers;
+
+  private final WritableByteChannel channel;
+
+  /** Index of the buffer currently being filled. */
+  private int current = 0;
+
+  /** The first failure reported by the channel. */
+  private IOException failure = null;
+
+  private boolean isClosed = false;
+
+
+  /**
+   * New instance with the default number and size of buffers.
+   *
+   * @param channel the channel to write to
+   */
+  public ChannelOutputStream(WritableByteChannel channel) {
+    this(channel, DEFAULT_RING_SIZE, DEFAULT_BUFFER_SIZE);
+  }
+
+
+  /**
+   * New instance.
+   *
+   * @param channel    the channel to write to
+   * @param ringSize   the number of buffers in the ring
+   * @param bufferSize the size of each buffer
+   */
+  public ChannelOutputStream(WritableByteChannel channel, int ringSize, int bufferSize) {
+    if (ringSize < 1 || bufferSize < 1) {
+      throw new IllegalArgumentException("Ring size and buffer size must be positive, not " + ringSize + " and " + bufferSize);
+    }
+    this.channel = channel;
+    buffers = new ByteBuffer[ringSize];
+    for (int i = 0; i < ringSize; i++) {
+      buffers[i] = ByteBuffer.allocate(bufferSize);
+    }
+  }
+
+
+  private void checkOpen() throws IOException {
+    if (failure != null) {
+      throw new IOException("Channel write failed", failure);
+    }
+    if (isClosed) {
+      throw new IOException("Stream is closed");
+    }
+  }
+
+
+  @Override
+  public void close() throws IOException {
+    if (isClosed) {
+      return;
+    }
+    try {
+      if (failure == null) {
+        drain();
+      }
+    } finally {
+      isClosed = true;
+      channel.close();
+    }
+  }
+
+
+  /**
+   * Write the contents of all the buffers to the channel. If the channel fails, this stream cannot be written to again.
+   *
+   * @throws IOException if the channel fails
+   */
+  private void drain() throws IOException {
+    try {
+      drainBuffers();
+    } catch (IOException e) {
+      failure = e;
+      throw e;
+    }
+  }
+
+
+  private void drainBuffers() throws IOException {
+    int count = current + 1;
+    for (int i = 0; i < count; i++) {
+      buffers[i].flip();
+    }
+    int first = 0;
+    if (channel instanceof GatheringByteChannel) {
+      GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+      while (first < count) {
+        gatheringChannel.write(buffers, first, count - first);
+        while (first < count && !buffers[first].hasRemaining()) {
+          first++;
+        }
+      }
+    } else {
+      for (; first < count; first++) {
+        while (buffers[first].hasRemaining()) {
+          channel.write(buffers[first]);
+        }
+      }
+    }
+    for (int i = 0; i < count; i++) {
+      buffers[i].clear();
+    }
+    current = 0;
+  }
+
+
+  /**
+   * Write all buffered output to the channel.
+   *
+   * @throws IOException if the channel fails
+   */
+  @Override
+  public void flush() throws IOException {
+    checkOpen();
+    drain();
+  }
+
+
+  /**
+   * Get a buffer with space available, writing the ring to the channel if necessary.
+   *
+   * @return the buffer
+   *
+   * @throws IOException if the channel fails
+   */
+  private ByteBuffer nextBuffer() throws IOException {
+    if (current + 1 == buffers.length) {
+      drain();
+    } else {
+      current++;
+    }
+    return buffers[current];
+  }
+
+
+  @Override
+  public void write(int b) throws IOException {
+    checkOpen();
+    ByteBuffer buffer = buffers[current];
+    if (!buffer.hasRemaining()) {
+      buffer = nextBuffer();
+    }
+    buffer.put((byte) b);
+  }
+
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) throws IOException {
+    checkOpen();
+    ByteBuffer buffer = buffers[current];
+    while (length > 0) {
+      if (!buffer.hasRemaining()) {
+        buffer = nextBuffer();
+      }
+      int size = Math.min(length, buffer.remaining());
+      buffer.put(bytes, offset, size);
+      offset += size;
+      length -= size;
+    }
+  }
+
+}
@@ -5,6 +5,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.Map;
 import jakarta.json.JsonException;
@@ -14,6 +15,10 @@ import jakarta.json.stream.JsonGeneratorFactory;
 /**
  * A factory for creating JSON Generator instances.
  *
+ * <p>Unless the key order is trusted, objects are held in memory until they are complete so their keys can be sorted. A root array, and any array which
+ * is an element of such an array, is output as it is written. If a generation error occurs, part of the document may already have been output, and the
+ * output is then incomplete.</p>
+ *
  * @author Simon Greatrix on 27/01/2020.
  */
 public class GeneratorFactory implements JsonGeneratorFactory {
@@ -75,6 +80,31 @@ public class GeneratorFactory implements JsonGeneratorFactory {
   }
 
 
+  /**
+   * Create a generator which writes to an asynchronous channel via the provided stream. Generation never blocks, and the channel is closed once all the
+   * output has been written. The caller must use the stream to respect back-pressure and to learn when the output is complete.
+   *
+   * @param output the stream wrapping the channel
+   *
+   * @return the generator
+   */
+  public Generator<?> createGenerator(AsyncChannelOutputStream output) {
+    return createGenerator((Appendable) new Utf8Writer(output));
+  }
+
+
+  /**
+   * Create a generator which writes to a blocking channel. The output is collected in a ring of buffers which are written with gathering writes.
+   *
+   * @param channel the channel
+   *
+   * @return the generator
+   */
+  public Generator<?> createGenerator(WritableByteChannel channel) {
+    return createGenerator((Appendable) new Utf8Writer(new ChannelOutputStream(channel)));
+  }
+
+
   /**
    * Create a generator encapsulating the given appendable.
    *
@@ -83,10 +113,15 @@ public class GeneratorFactory implements JsonGeneratorFactory {
    * @return the generator
    */
   public Generator<?> createGenerator(Appendable appendable) {
+    return createGenerator(createFormatter(appendable));
+  }
+
+
+  Generator<?> createGenerator(Formatter formatter) {
     if (trustKeyOrder) {
-      return new TrustedGenerator(createFormatter(appendable));
+      return new TrustedGenerator(formatter);
     }
-    return new SafeGenerator(createFormatter(appendable));
+    return new SafeGenerator(formatter);
   }
 
 
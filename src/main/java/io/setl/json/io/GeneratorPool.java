@@ -0,0 +1,83 @@
+package io.setl.json.io;
+
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * A pool of reusable generator resources. The output buffer and formatter of a pooled generator are retained between documents, so generating many small
+ * documents does not require new buffers to be allocated for each one. The resources are returned to the pool when the generator is closed.
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class GeneratorPool {
+
+  /** Default maximum number of idle generators held in a pool. */
+  private static final int DEFAULT_MAX_IDLE = Integer.getInteger(GeneratorPool.class.getPackageName() + ".poolMaxIdle",
+      2 * Runtime.getRuntime().availableProcessors()
+  );
+
+
+  private final GeneratorFactory factory;
+
+  private final BlockingQueue<PooledGenerator.Resources> idle;
+
+
+  /**
+   * New instance holding the default maximum number of idle generators.
+   *
+   * @param factory the factory which configures the generators
+   */
+  public GeneratorPool(GeneratorFactory factory) {
+    this(factory, DEFAULT_MAX_IDLE);
+  }
+
+
+  /**
+   * New instance.
+   *
+   * @param factory the factory which configures the generators
+   * @param maxIdle the maximum number of idle generators held in the pool
+   */
+  public GeneratorPool(GeneratorFactory factory, int maxIdle) {
+    if (maxIdle < 1) {
+      throw new IllegalArgumentException("Maximum idle generators must be positive, not " + maxIdle);
+    }
+    this.factory = factory;
+    idle = new ArrayBlockingQueue<>(maxIdle);
+  }
+
+
+  /**
+   * Get a generator which writes to the specified stream. The generated JSON is buffered and written to the stream when the generator is flushed or closed.
+   * Closing the generator closes the stream and returns its resources to this pool, after which the generator must not be used.
+   *
+   * @param output the stream
+   *
+   * @return the generator
+   */
+  public PooledGenerator acquire(OutputStream output) {
+    PooledGenerator.Resources resources = idle.poll();
+    if (resources == null) {
+      resources = new PooledGenerator.Resources();
+    }
+    return new PooledGenerator(this, factory, resources, output);
+  }
+
+
+  /**
+   * Get the number of idle generators currently held in this pool.
+   *
+   * @return the number of idle generators
+   */
+  public int getIdleCount() {
+    return idle.size();
+  }
+
+
+  void release(PooledGenerator.Resources resources) {
+    // If the pool is full, the resources are discarded
+    idle.offer(resources);
+  }
+
+}
@@ -8,13 +8,34 @@ import jakarta.json.stream.JsonParsingException;
 /**
  * Input for parsing.
  *
+ * <p>Characters are read from the reader in blocks. By default, the location is updated as each character is read. If lazy location tracking is enabled,
+ * the location is brought up to date only when a location is requested or a block is discarded. Only the line breaks in a block need to be examined, and
+ * the reported locations are identical in both modes.</p>
+ *
  * @author Simon Greatrix on 10/01/2020.
  */
 public class Input {
 
+  /** Number of characters read from the reader at a time. */
+  private static final int BUFFER_SIZE = 4096;
+
+  private final char[] buffer = new char[BUFFER_SIZE];
+
   private final MutableLocation location = new MutableLocation();
 
-  private final Reader reader;
+  private Reader reader;
+
+  /** Number of characters at the start of the buffer that have been included in the location. */
+  private int folded = 0;
+
+  /** If true, the location is only updated when required. */
+  private boolean lazyLocation = false;
+
+  /** Number of valid characters in the buffer. */
+  private int limit = 0;
+
+  /** Position of the next character to read in the buffer. */
+  private int position = 0;
 
   private boolean seenEOF = false;
 
@@ -45,16 +66,69 @@ public class Input {
   }
 
 
+  /**
+   * Fill the buffer from the reader.
+   *
+   * @return true if at least one character was read, false on end of stream
+   */
+  private boolean fill() {
+    if (seenEOF) {
+      return false;
+    }
+    // the block is about to be discarded
+    foldLocation();
+
+    int count;
+    try {
+      do {
+        count = reader.read(buffer, 0, BUFFER_SIZE);
+      } while (count == 0);
+    } catch (IOException e) {
+      throw new JsonParsingException("I/O failure", e, getLocation());
+    }
+
+    position = 0;
+    folded = 0;
+    if (count == -1) {
+      seenEOF = true;
+      limit = 0;
+      return false;
+    }
+    limit = count;
+    return true;
+  }
+
+
+  /** Bring the location up to date with the characters that have been read. */
+  private void foldLocation() {
+    if (lazyLocation && folded < position) {
+      location.update(buffer, folded, position);
+      folded = position;
+    }
+  }
+
+
   /**
    * Get the location in the input.
    *
    * @return the location
    */
   public JsonLocation getLocation() {
+    foldLocation();
     return new Location(location);
   }
 
 
+  /**
+   * Is the location only calculated when required?.
+   *
+   * @return true if the location is calculated lazily
+   */
+  public boolean isLazyLocation() {
+    return lazyLocation;
+  }
+
+
   /**
    * Read the next character.
    *
@@ -69,20 +143,51 @@ public class Input {
       unread = -2;
       return r;
     }
-    if (seenEOF) {
+    if (position == limit && !fill()) {
       return -1;
     }
-    try {
-      r = reader.read();
-    } catch (IOException e) {
-      throw new JsonParsingException("I/O failure", e, getLocation());
+    r = buffer[position++];
+    if (!lazyLocation) {
+      location.update(r);
     }
-    location.update(r);
+    return r;
+  }
 
-    if (r == -1) {
-      seenEOF = true;
+
+  /**
+   * Reset this to read from a new reader. The internal buffer is retained and the location is returned to the start of the stream. The previous reader is not
+   * closed.
+   *
+   * @param reader the new reader
+   */
+  public void reset(Reader reader) {
+    this.reader = reader;
+    location.reset();
+    folded = 0;
+    limit = 0;
+    position = 0;
+    seenEOF = false;
+    unread = -2;
+  }
+
+
+  /**
+   * Set whether the location is calculated lazily. If lazy, the location is calculated from the characters read when a location is required, or when a
+   * block of input is discarded.
+   *
+   * @param lazyLocation if true, calculate the location lazily
+   */
+  public void setLazyLocation(boolean lazyLocation) {
+    if (this.lazyLocation == lazyLocation) {
+      return;
     }
-    return r;
+    if (lazyLocation) {
+      // everything read so far is already included in the location
+      folded = position;
+    } else {
+      foldLocation();
+    }
+    this.lazyLocation = lazyLocation;
   }
 
 
@@ -92,9 +197,6 @@ public class Input {
    * @param r the value to unread
    */
   public void unread(int r) {
-    if (r != -1) {
-      seenEOF = false;
-    }
     unread = r;
   }
 
@@ -39,6 +39,28 @@ public class MutableLocation extends Location {
   }
 
 
+  /**
+   * New instance which continues from the same position as another location.
+   *
+   * @param other the other location
+   */
+  public MutableLocation(MutableLocation other) {
+    columnNumber = other.columnNumber;
+    lineNumber = other.lineNumber;
+    streamOffset = other.streamOffset;
+    lastWasCR = other.lastWasCR;
+  }
+
+
+  /** Reset this location to the start of a stream. */
+  public void reset() {
+    columnNumber = 0L;
+    lineNumber = 1L;
+    streamOffset = 0L;
+    lastWasCR = false;
+  }
+
+
   /**
    * Set the column number.
    *
@@ -69,6 +91,55 @@ public class MutableLocation extends Location {
   }
 
 
+  /**
+   * Update this location from reading a block of characters from the stream. The result is the same as updating with each character in turn, but only the
+   * line breaks are examined before the last line break in the block.
+   *
+   * @param chars the characters
+   * @param start the index of the first character read
+   * @param end   the index after the last character read
+   */
+  public void update(char[] chars, int start, int end) {
+    // find the start of the last line in the block
+    int lineStart = end;
+    while (lineStart > start && chars[lineStart - 1] != '\n' && chars[lineStart - 1] != '\r') {
+      lineStart--;
+    }
+
+    if (lineStart > start) {
+      // count the line breaks, with the same rules as for single characters
+      long lines = lineNumber;
+      boolean cr = lastWasCR;
+      for (int i = start; i < lineStart; i++) {
+        char ch = chars[i];
+        if (ch < ' ') {
+          if (ch == '\n') {
+            if (cr) {
+              cr = false;
+            } else {
+              lines++;
+            }
+          } else if (ch == '\r') {
+            lines++;
+            cr = true;
+          } else if (ch != '\t') {
+            cr = false;
+          }
+        }
+      }
+      lineNumber = lines;
+      lastWasCR = cr;
+      columnNumber = 0;
+      streamOffset += lineStart - start;
+    }
+
+    // the column depends on every character of the last line
+    for (int i = lineStart; i < end; i++) {
+      update(chars[i]);
+    }
+  }
+
+
   /**
    * Update this location from reading the given character from the stream.
    *
@@ -7,6 +7,7 @@ import java.io.IOException;
 import io.setl.json.exception.JsonIOException;
 import io.setl.json.primitive.CJBase;
 import io.setl.json.primitive.CJString;
+import io.setl.json.primitive.numbers.CJNumber;
 
 /**
  * Outputs the JSON with no optional white-space.
@@ -18,6 +19,9 @@ public class NoOpFormatter implements Formatter {
   /** The appendable to output to. */
   protected final Appendable appendable;
 
+  /** Scratch space for formatting numbers, reused for every number this formatter writes. */
+  private final char[] scratch = new char[CJNumber.SCRATCH_SIZE];
+
 
   /**
    * New instance using the specified appendable.
@@ -56,7 +60,11 @@ public class NoOpFormatter implements Formatter {
   @Override
   public void write(CJBase value) {
     try {
-      value.writeTo(appendable);
+      if (value instanceof CJNumber) {
+        ((CJNumber) value).writeTo(appendable, scratch);
+      } else {
+        value.writeTo(appendable);
+      }
     } catch (IOException exception) {
       throw new JsonIOException(exception);
     }
@@ -99,7 +107,7 @@ public class NoOpFormatter implements Formatter {
   @Override
   public void writeKey(String key) {
     try {
-      CJString.format(appendable, key);
+      CJString.formatKey(appendable, key);
     } catch (IOException exception) {
       throw new JsonIOException(exception);
     }
@@ -0,0 +1,143 @@
+package io.setl.json.io;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+
+import io.setl.json.exception.JsonIOException;
+
+/**
+ * A generator obtained from a {@link GeneratorPool}. The JSON is encoded as UTF-8 into a buffer which is retained by the pool and reused. The buffer is
+ * sized by a decaying high-water mark of the documents generated, so a single unusually large document does not cause a large buffer to be held for ever.
+ *
+ * <p>Every acquisition from the pool returns a new generator, and closing it returns only the buffer and formatter to the pool. A generator which has been
+ * closed can therefore never write to another caller's document.</p>
+ *
+ * <p>Nothing is written to the output stream until {@link #flush()} or {@link #close()} is called, so the whole document is held in memory. A caller
+ * generating a very large document should call {@code flush()} periodically, or use a generator which writes directly to the stream.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class PooledGenerator extends DelegatingGenerator<PooledGenerator> {
+
+  /** The initial and minimum size of the output buffer. */
+  private static final int MIN_BUFFER_SIZE = 1024;
+
+
+
+  /** An output buffer which can be recycled. */
+  private static class OutputBuffer extends ByteArrayOutputStream {
+
+    /** The decaying high-water mark of the number of bytes held. */
+    private int highWater = 0;
+
+
+    OutputBuffer() {
+      super(MIN_BUFFER_SIZE);
+    }
+
+
+    /** Empty this buffer, releasing the storage if it is much larger than recent documents have required. */
+    void recycle() {
+      // the high water mark decays by one eighth every use
+      highWater = Math.max(count, highWater - (highWater >> 3));
+      if (buf.length > 2 * highWater && buf.length > MIN_BUFFER_SIZE) {
+        buf = new byte[Math.max(MIN_BUFFER_SIZE, highWater)];
+      }
+      count = 0;
+    }
+
+  }
+
+
+
+  /** The state which is retained between uses, and held by the pool whilst idle. */
+  static class Resources {
+
+    final OutputBuffer buffer = new OutputBuffer();
+
+    /** The formatter. This is discarded if generation fails, as it may contain partial state. */
+    Formatter formatter;
+
+  }
+
+
+
+  private final GeneratorPool pool;
+
+  private OutputStream output;
+
+  /** The pooled state, which is released when this is closed. */
+  private Resources resources;
+
+
+  /**
+   * New instance which writes a new document.
+   *
+   * @param pool      the pool which supplied the resources
+   * @param factory   the factory which configures the generator
+   * @param resources the pooled resources
+   * @param output    the stream which will receive the document
+   */
+  PooledGenerator(GeneratorPool pool, GeneratorFactory factory, Resources resources, OutputStream output) {
+    this.pool = pool;
+    this.resources = resources;
+    this.output = Objects.requireNonNull(output, "Output stream must not be null");
+    resources.buffer.recycle();
+    if (resources.formatter == null) {
+      resources.formatter = factory.createFormatter(new Utf8Appendable(resources.buffer));
+    }
+    delegate = factory.createGenerator(resources.formatter);
+  }
+
+
+  /**
+   * Complete the generation, write the JSON to the output stream, close the stream, and return the retained resources to the pool. Closing again has no
+   * effect, even if the resources have since been used by another generator.
+   */
+  @Override
+  public void close() {
+    if (resources == null) {
+      return;
+    }
+    Resources held = resources;
+    resources = null;
+    OutputStream out = output;
+    output = null;
+    Formatter inUse = held.formatter;
+    held.formatter = null;
+    try {
+      try {
+        delegate.close();
+        held.buffer.writeTo(out);
+        held.formatter = inUse;
+      } finally {
+        out.close();
+      }
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    } finally {
+      delegate = null;
+      held.buffer.recycle();
+      pool.release(held);
+    }
+  }
+
+
+  /**
+   * Write all the JSON generated so far to the output stream and flush it.
+   */
+  @Override
+  public void flush() {
+    delegate.flush();
+    try {
+      resources.buffer.writeTo(output);
+      resources.buffer.recycle();
+      output.flush();
+    } catch (IOException e) {
+      throw new JsonIOException(e);
+    }
+  }
+
+}
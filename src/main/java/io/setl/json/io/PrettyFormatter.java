@@ -5,6 +5,7 @@ import java.io.IOException;
 import io.setl.json.io.PrettyOutput.Special;
 import io.setl.json.primitive.CJBase;
 import io.setl.json.primitive.CJString;
+import io.setl.json.primitive.numbers.CJNumber;
 
 /**
  * A JSON formatter which does pretty printing.
@@ -16,6 +17,9 @@ public class PrettyFormatter implements Formatter, Appendable {
   /** Pretty output destination. */
   private PrettyOutput prettyOutput;
 
+  /** Scratch space for formatting numbers, reused for every number this formatter writes. */
+  private final char[] scratch = new char[CJNumber.SCRATCH_SIZE];
+
 
   /** Create a new instance.
    *
@@ -63,7 +67,11 @@ public class PrettyFormatter implements Formatter, Appendable {
   @Override
   public void write(CJBase value) {
     try {
-      value.writeTo(this);
+      if (value instanceof CJNumber) {
+        ((CJNumber) value).writeTo(this, scratch);
+      } else {
+        value.writeTo(this);
+      }
     } catch (IOException exception) {
       throw new InternalError("Impossible IOException", exception);
     }
@@ -1,18 +1,89 @@
 package io.setl.json.io;
 
+import jakarta.json.stream.JsonGenerationException;
+
 import io.setl.json.Canonical;
 
 /**
- * The safe generator builds a copy of the structure and then passes it to a trusted generator.
+ * The safe generator builds incomplete structures in memory and then passes them to a trusted generator.
+ *
+ * <p>The members of an object may be written in any order, so an object must be held in memory until it is complete. The elements of an array are always
+ * output in the order they are written, so an array which is the root, or which is an element of such an array, is passed on to the trusted generator as it
+ * is written. Values which are already canonical structures are held by reference and written directly from their own storage.</p>
+ *
+ * <p>As a streamed array is output before it is complete, a generation error may be raised after part of the document has been output. The output
+ * then holds an incomplete document, which should be discarded. Closing the generator still closes the output, and reports the incomplete document by
+ * throwing an exception.</p>
+ *
+ * <p>The members of an object are not streamed, even when they are complete canonical structures, as a member with an earlier key may still be written.
+ * Such members are held by reference until the object ends, so they are not copied.</p>
  *
  * @author Simon Greatrix on 27/01/2020.
  */
 class SafeGenerator extends InMemoryGenerator<SafeGenerator> {
 
+  /** The root context after a streamed root array has been completed. */
+  private static class CompletedRootContext extends RootContext {
+
+    @Override
+    public void write(Canonical canonical) {
+      throw new JsonGenerationException("Cannot write multiple values to root context");
+    }
+
+  }
+
+
+
+  /** An array whose position in the output is known, so its elements can be passed straight to the output. */
+  private class StreamingArrayContext implements Context {
+
+    private final Context parent;
+
+
+    StreamingArrayContext(Context parent) {
+      this.parent = parent;
+    }
+
+
+    @Override
+    public Context getParent() {
+      return parent;
+    }
+
+
+    @Override
+    public void write(Canonical canonical) {
+      target.write(canonical);
+    }
+
+
+    @Override
+    public Context writeEnd() {
+      target.writeEnd();
+      streamingDepth--;
+      return (parent == root) ? new CompletedRootContext() : parent;
+    }
+
+
+    @Override
+    public void writeKey(String key) {
+      throw new JsonGenerationException("Cannot write key in array context");
+    }
+
+  }
+
+
+
+  private final Formatter formatter;
+
   private final TrustedGenerator target;
 
+  /** Number of arrays which have been started on the output but not yet ended. */
+  private int streamingDepth = 0;
+
 
   SafeGenerator(Formatter formatter) {
+    this.formatter = formatter;
     target = new TrustedGenerator(formatter);
   }
 
@@ -22,7 +93,12 @@ class SafeGenerator extends InMemoryGenerator<SafeGenerator> {
     try {
       super.close();
     } finally {
-      target.close();
+      if (streamingDepth == 0) {
+        target.close();
+      } else {
+        // An array has been started on the output and not ended, so the document is incomplete. The output is still closed so it is not leaked.
+        formatter.close();
+      }
     }
   }
 
@@ -36,11 +112,23 @@ class SafeGenerator extends InMemoryGenerator<SafeGenerator> {
 
   @Override
   public void flush() {
-    // This is pretty much always a no-op, unless you want to flush anything written to the output prior to starting the generator. During generation nothing
-    // is written as it is prepared in-memory.
-    if (isInRoot()) {
+    // Unless an array is being streamed, this is pretty much always a no-op, unless you want to flush anything written to the output prior to starting the
+    // generator. During generation of objects nothing is written as it is prepared in-memory.
+    if (isInRoot() || context instanceof StreamingArrayContext) {
       target.flush();
     }
   }
 
+
+  @Override
+  public SafeGenerator writeStartArray() {
+    if ((context == root && root.output == null) || context instanceof StreamingArrayContext) {
+      target.writeStartArray();
+      streamingDepth++;
+      context = new StreamingArrayContext(context);
+      return this;
+    }
+    return super.writeStartArray();
+  }
+
 }
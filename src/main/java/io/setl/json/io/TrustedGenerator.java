@@ -1,11 +1,10 @@
 package io.setl.json.io;
 
-import jakarta.json.JsonValue.ValueType;
 import jakarta.json.stream.JsonGenerationException;
 
-import io.setl.json.CJArray;
 import io.setl.json.CJObject;
 import io.setl.json.Canonical;
+import io.setl.json.TreeWriter;
 import io.setl.json.primitive.CJBase;
 import io.setl.json.primitive.CJNull;
 
@@ -215,16 +214,10 @@ class TrustedGenerator implements Generator<TrustedGenerator> {
       context.writeValue(CJNull.NULL);
     } else if (value instanceof CJBase) {
       context.writeValue((CJBase) value);
-    } else if (value.getValueType() == ValueType.ARRAY) {
-      CJArray cjArray = (CJArray) value;
-      writeStartArray();
-      cjArray.canonicalForEach(this::write);
-      writeEnd();
     } else {
-      CJObject cjObject = (CJObject) value;
-      writeStartObject();
-      cjObject.canonicalForEach(this::write);
-      writeEnd();
+      // The structure is already in canonical order, so can be written directly without creating contexts.
+      context.writeStructure();
+      TreeWriter.write(formatter, value);
     }
     return this;
   }
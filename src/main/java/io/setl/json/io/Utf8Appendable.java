@@ -66,6 +66,21 @@ public class Utf8Appendable implements Appendable {
   }
 
 
+  /**
+   * Append bytes which are already UTF-8 encoded. The bytes are written to the output in a single operation.
+   *
+   * @param bytes the UTF-8 encoded bytes, which must consist of complete characters
+   *
+   * @throws IOException if the wrapped output stream fails, or the last character appended was an isolated high surrogate
+   */
+  public void appendUtf8(byte[] bytes) throws IOException {
+    if (highSurrogate != 0) {
+      throw new IOException("Isolated high surrogate");
+    }
+    output.write(bytes);
+  }
+
+
   /**
    * Close the output.
    *
@@ -0,0 +1,111 @@
+package io.setl.json.parser;
+
+import java.io.Closeable;
+import java.io.Reader;
+import java.util.stream.Stream;
+import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
+
+import io.setl.json.Canonical;
+
+/**
+ * Lazily parse the elements of a root array. Only one element is held in memory at a time, so arrays far larger than the available heap may be processed.
+ *
+ * <p>The input is closed when the end of the array is reached, when an error is found in the input, or when this iterator, or a stream derived from
+ * it, is closed.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ArrayElementIterator extends BaseIterator<Canonical> implements Closeable {
+
+  private final Parser parser;
+
+  private Canonical next;
+
+  private boolean started = false;
+
+
+  /**
+   * New instance.
+   *
+   * @param reader the input containing a root array
+   */
+  public ArrayElementIterator(Reader reader) {
+    this(new Parser(reader));
+  }
+
+
+  /**
+   * New instance which reads from a configured parser. The parser must not have been advanced. As the root array must be the only root value, the parser is
+   * set to require a single root.
+   *
+   * @param parser the parser for the input containing a root array
+   */
+  public ArrayElementIterator(Parser parser) {
+    this.parser = parser;
+    parser.setRequireSingleRoot(true);
+  }
+
+
+  @Override
+  protected boolean checkNext() {
+    try {
+      if (!started) {
+        started = true;
+        if (!parser.hasNext() || parser.next() != Event.START_ARRAY) {
+          throw new JsonParsingException("Root value is not an array", parser.getLocation());
+        }
+      }
+
+      if (!parser.hasNext()) {
+        throw new JsonParsingException("Array was not terminated.", parser.getLocation());
+      }
+      if (parser.next() == Event.END_ARRAY) {
+        // verify there is no further content after the array
+        parser.hasNext();
+        close();
+        return false;
+      }
+      next = parser.getValue();
+      return true;
+    } catch (RuntimeException e) {
+      // the iteration cannot continue after an error, but a failure to close must not hide the original error
+      try {
+        close();
+      } catch (RuntimeException suppressed) {
+        e.addSuppressed(suppressed);
+      }
+      throw e;
+    }
+  }
+
+
+  /**
+   * Close the input.
+   */
+  @Override
+  public void close() {
+    hasNextCalled = true;
+    nextExists = false;
+    parser.close();
+  }
+
+
+  @Override
+  protected Canonical fetchNext() {
+    Canonical value = next;
+    next = null;
+    return value;
+  }
+
+
+  /**
+   * Get the elements as a stream. Closing the stream closes the input.
+   *
+   * @return the stream
+   */
+  public Stream<Canonical> stream() {
+    return asStream().onClose(this::close);
+  }
+
+}
@@ -0,0 +1,563 @@
+package io.setl.json.parser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.stream.Stream;
+import jakarta.json.JsonConfig.KeyStrategy;
+import jakarta.json.JsonException;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+import io.setl.json.Canonical;
+import io.setl.json.io.Location;
+import io.setl.json.io.MutableLocation;
+
+/**
+ * Parse a stream containing multiple root values, such as newline delimited JSON, using multiple threads.
+ *
+ * <p>A single thread scans the input to find where each root value starts and ends. The scan only tracks string and structure boundaries, so it is much
+ * cheaper than a full parse. The root values are then gathered into batches and each batch is fully parsed as a separate task. The values may be delivered
+ * in the order they appear in the input, or in whatever order the batches complete.</p>
+ *
+ * <p>Adjacent root values which are not structures or strings must be separated by whitespace. Any error in a root value is reported with its location in
+ * the whole input. A parser can only be consumed once.</p>
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ParallelParser implements Closeable {
+
+  /** Default number of root values parsed by each task. */
+  private static final int DEFAULT_BATCH_SIZE = Integer.getInteger(ParallelParser.class.getPackageName() + ".parallelBatchSize", 256);
+
+
+
+  /** A root value identified in the input. */
+  private static class Record {
+
+    /** The location just before the first character of this record. */
+    final MutableLocation start;
+
+    final String text;
+
+
+    Record(String text, MutableLocation start) {
+      this.text = text;
+      this.start = start;
+    }
+
+
+    /**
+     * Convert a location within this record to a location within the whole input. The record's characters are counted from its start with the same
+     * rules as the input, so line breaks and tab stops are handled exactly as a parser of the whole input would handle them.
+     *
+     * @param location the location within this record
+     *
+     * @return the location within the input
+     */
+    JsonLocation locate(JsonLocation location) {
+      MutableLocation here = new MutableLocation(start);
+      long end = (location != null) ? Math.min(text.length(), Math.max(0, location.getStreamOffset())) : 0;
+      for (int i = 0; i < end; i++) {
+        here.update(text.charAt(i));
+      }
+      return new Location(here);
+    }
+
+  }
+
+
+
+  /** Iterator over the parsed values. */
+  private class Results extends BaseIterator<Canonical> {
+
+    /** Completed batches, when not ordered. */
+    private final BlockingQueue<CompletableFuture<List<Canonical>>> completed = new LinkedBlockingQueue<>();
+
+    /** Submitted batches, in input order. */
+    private final ArrayDeque<CompletableFuture<List<Canonical>>> pending = new ArrayDeque<>();
+
+    private Iterator<Canonical> current = Collections.emptyIterator();
+
+    private boolean isExhausted = false;
+
+
+    void cancel() {
+      for (CompletableFuture<List<Canonical>> future : pending) {
+        future.cancel(false);
+      }
+      pending.clear();
+      completed.clear();
+    }
+
+
+    @Override
+    protected boolean checkNext() {
+      while (!current.hasNext()) {
+        submit();
+        if (pending.isEmpty()) {
+          return false;
+        }
+        current = take().iterator();
+      }
+      return true;
+    }
+
+
+    @Override
+    protected Canonical fetchNext() {
+      return current.next();
+    }
+
+
+    private void submit() {
+      while (!isExhausted && pending.size() < window) {
+        List<Record> batch = scanner.nextBatch(batchSize);
+        if (batch.isEmpty()) {
+          isExhausted = true;
+          return;
+        }
+        CompletableFuture<List<Canonical>> future = CompletableFuture.supplyAsync(() -> parseBatch(batch), executor);
+        if (!ordered) {
+          future.whenComplete((v, t) -> completed.add(future));
+        }
+        pending.add(future);
+      }
+    }
+
+
+    private List<Canonical> take() {
+      CompletableFuture<List<Canonical>> future;
+      if (ordered) {
+        future = pending.removeFirst();
+      } else {
+        try {
+          future = completed.take();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new JsonException("Interrupted whilst waiting for values to be parsed", e);
+        }
+        pending.remove(future);
+      }
+
+      try {
+        return future.join();
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw e;
+      }
+    }
+
+  }
+
+
+
+  /** Scanner which finds the boundaries of root values. */
+  private static class Scanner {
+
+    private final char[] buffer = new char[8192];
+
+    private final Reader reader;
+
+    private final StringBuilder text = new StringBuilder();
+
+    /** The location of the last character read. */
+    private final MutableLocation location = new MutableLocation();
+
+    private int limit = 0;
+
+    private int position = 0;
+
+
+    Scanner(Reader reader) {
+      this.reader = reader;
+    }
+
+
+    private boolean fill() {
+      int count;
+      try {
+        do {
+          count = reader.read(buffer, 0, buffer.length);
+        }
+        while (count == 0);
+      } catch (IOException e) {
+        throw new JsonParsingException("I/O failure", e, new Location(location));
+      }
+      if (count == -1) {
+        return false;
+      }
+      position = 0;
+      limit = count;
+      return true;
+    }
+
+
+    List<Record> nextBatch(int size) {
+      ArrayList<Record> batch = new ArrayList<>(size);
+      Record record;
+      while (batch.size() < size && (record = nextRecord()) != null) {
+        batch.add(record);
+      }
+      return batch;
+    }
+
+
+    private Record nextRecord() {
+      int r;
+      while ((r = peek()) == ' ' || r == '\n' || r == '\r' || r == '\t') {
+        read();
+      }
+      if (r == -1) {
+        return null;
+      }
+
+      MutableLocation start = new MutableLocation(location);
+      read();
+      text.setLength(0);
+      text.append((char) r);
+
+      if (r == '{' || r == '[') {
+        scanStructure();
+      } else if (r == '"') {
+        scanString();
+      } else if (r != '}' && r != ']') {
+        scanPrimitive();
+      }
+
+      return new Record(text.toString(), start);
+    }
+
+
+    private int peek() {
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      return buffer[position];
+    }
+
+
+    private int read() {
+      if (position == limit && !fill()) {
+        return -1;
+      }
+      char ch = buffer[position++];
+      location.update(ch);
+      return ch;
+    }
+
+
+    private void scanPrimitive() {
+      while (true) {
+        int r = peek();
+        switch (r) {
+          case -1:
+          case ' ':
+          case '\n':
+          case '\r':
+          case '\t':
+          case '[':
+          case ']':
+          case '{':
+          case '}':
+          case '"':
+          case ',':
+          case ':':
+            return;
+          default:
+            text.append((char) read());
+            break;
+        }
+      }
+    }
+
+
+    private void scanString() {
+      boolean isEscaped = false;
+      int r;
+      while ((r = read()) != -1) {
+        text.append((char) r);
+        if (isEscaped) {
+          isEscaped = false;
+        } else if (r == '\\') {
+          isEscaped = true;
+        } else if (r == '"') {
+          return;
+        }
+      }
+    }
+
+
+    private void scanStructure() {
+      int depth = 1;
+      int r;
+      while ((r = read()) != -1) {
+        text.append((char) r);
+        switch (r) {
+          case '"':
+            scanString();
+            break;
+          case '{':
+          case '[':
+            depth++;
+            break;
+          case '}':
+          case ']':
+            depth--;
+            if (depth == 0) {
+              return;
+            }
+            break;
+          default:
+            break;
+        }
+      }
+    }
+
+  }
+
+
+  private final Reader reader;
+
+  private final Scanner scanner;
+
+  private int batchSize = DEFAULT_BATCH_SIZE;
+
+  private Executor executor = ForkJoinPool.commonPool();
+
+  private boolean isStarted = false;
+
+  private KeyStrategy keyStrategy = KeyStrategy.LAST;
+
+  private boolean ordered = true;
+
+  private Results results;
+
+  private int window = 2 * ForkJoinPool.getCommonPoolParallelism() + 1;
+
+
+  /**
+   * New instance reading UTF-8 encoded JSON from a byte stream.
+   *
+   * @param input the byte stream
+   */
+  public ParallelParser(InputStream input) {
+    this(new InputStreamReader(input, UTF_8));
+  }
+
+
+  /**
+   * New instance reading from the specified character reader.
+   *
+   * @param reader the reader
+   */
+  public ParallelParser(Reader reader) {
+    this.reader = reader;
+    scanner = new Scanner(reader);
+  }
+
+
+  private void checkNotStarted() {
+    if (isStarted) {
+      throw new IllegalStateException("Parsing has already started");
+    }
+  }
+
+
+  /**
+   * Close the input and abandon any outstanding parsing.
+   *
+   * @throws JsonParsingException if an IOException occurs
+   */
+  @Override
+  public void close() {
+    if (results != null) {
+      results.cancel();
+    }
+    try {
+      reader.close();
+    } catch (IOException e) {
+      throw new JsonParsingException("I/O failure", e, Location.UNSET);
+    }
+  }
+
+
+  /**
+   * Get an iterator over the parsed root values.
+   *
+   * @return the iterator
+   */
+  public Iterator<Canonical> iterator() {
+    checkNotStarted();
+    isStarted = true;
+    results = new Results();
+    return results;
+  }
+
+
+  private Canonical parse(Parser parser, Record record) {
+    parser.reset(new StringReader(record.text));
+    try {
+      parser.next();
+      Canonical value = parser.getValue();
+
+      // With a single root required, this verifies the record is a single value.
+      parser.hasNext();
+      return value;
+    } catch (JsonParsingException e) {
+      throw new JsonParsingException(e.getMessage(), e, record.locate(e.getLocation()));
+    }
+  }
+
+
+  private List<Canonical> parseBatch(List<Record> batch) {
+    ArrayList<Canonical> values = new ArrayList<>(batch.size());
+    Parser parser = new Parser(Reader.nullReader(), keyStrategy);
+    for (Record record : batch) {
+      values.add(parse(parser, record));
+    }
+    return values;
+  }
+
+
+  /**
+   * Get a publisher of the parsed root values. Only a single subscriber is supported, and any later subscriber receives an error. The values are published
+   * from a task run on the executor, and the input is closed when publishing finishes.
+   *
+   * @return the publisher
+   */
+  public Flow.Publisher<Canonical> publisher() {
+    return subscriber -> {
+      Iterator<Canonical> iterator;
+      try {
+        iterator = iterator();
+      } catch (IllegalStateException e) {
+        // A subscriber must be told of a failure through its "onError" method, and only after it has been subscribed.
+        subscriber.onSubscribe(new Flow.Subscription() {
+          @Override
+          public void cancel() {
+            // do nothing
+          }
+
+
+          @Override
+          public void request(long n) {
+            // do nothing
+          }
+        });
+        subscriber.onError(e);
+        return;
+      }
+      SubmissionPublisher<Canonical> publisher = new SubmissionPublisher<>(executor, Flow.defaultBufferSize());
+      publisher.subscribe(subscriber);
+      executor.execute(() -> {
+        try {
+          while (iterator.hasNext()) {
+            publisher.submit(iterator.next());
+          }
+          publisher.close();
+        } catch (RuntimeException e) {
+          publisher.closeExceptionally(e);
+        } finally {
+          close();
+        }
+      });
+    };
+  }
+
+
+  /**
+   * Set the number of root values which are parsed together as a single task. The default is 256, which may be changed by the
+   * "io.setl.json.parser.parallelBatchSize" system property.
+   *
+   * @param batchSize the number of root values in each task
+   */
+  public void setBatchSize(int batchSize) {
+    checkNotStarted();
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive, not " + batchSize);
+    }
+    this.batchSize = batchSize;
+  }
+
+
+  /**
+   * Set the executor which runs the parsing tasks. The default is the common fork-join pool.
+   *
+   * @param executor the executor
+   */
+  public void setExecutor(Executor executor) {
+    checkNotStarted();
+    this.executor = executor;
+  }
+
+
+  /**
+   * Set the strategy for handling duplicate keys in objects.
+   *
+   * @param keyStrategy the key strategy
+   */
+  public void setKeyStrategy(KeyStrategy keyStrategy) {
+    checkNotStarted();
+    this.keyStrategy = keyStrategy;
+  }
+
+
+  /**
+   * Set whether the values must be delivered in the same order as the input. If not, batches are delivered as soon as they are parsed. The default is
+   * ordered.
+   *
+   * @param ordered true if the values must be delivered in order
+   */
+  public void setOrdered(boolean ordered) {
+    checkNotStarted();
+    this.ordered = ordered;
+  }
+
+
+  /**
+   * Set the maximum number of batches which may be scanned but not yet delivered. This limits the memory used when the consumer is slower than the parsing.
+   * The default is twice the parallelism of the common fork-join pool, plus one.
+   *
+   * @param window the maximum number of outstanding batches
+   */
+  public void setWindow(int window) {
+    checkNotStarted();
+    if (window < 1) {
+      throw new IllegalArgumentException("Window must be positive, not " + window);
+    }
+    this.window = window;
+  }
+
+
+  /**
+   * Get a stream of the parsed root values. Closing the stream closes this parser.
+   *
+   * @return the stream
+   */
+  public Stream<Canonical> stream() {
+    BaseIterator<Canonical> iterator = (BaseIterator<Canonical>) iterator();
+    return iterator.asStream().onClose(this::close);
+  }
+
+}
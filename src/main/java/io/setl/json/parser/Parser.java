@@ -2,10 +2,12 @@ package io.setl.json.parser;
 
 import java.io.Reader;
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Map.Entry;
 import java.util.stream.Stream;
 
 import jakarta.json.JsonConfig.KeyStrategy;
+import jakarta.json.JsonException;
 import jakarta.json.JsonValue;
 import jakarta.json.JsonValue.ValueType;
 import jakarta.json.stream.JsonLocation;
@@ -15,6 +17,7 @@ import jakarta.json.stream.JsonParsingException;
 import io.setl.json.CJArray;
 import io.setl.json.CJObject;
 import io.setl.json.Canonical;
+import io.setl.json.MemberList;
 import io.setl.json.io.Input;
 import io.setl.json.primitive.CJFalse;
 import io.setl.json.primitive.CJNull;
@@ -45,7 +48,10 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
    */
   private static final char[] LITERAL_TRUE = {'r', 'u', 'e'};
 
-  private static final int MAX_RECURSION_DEPTH = Integer.getInteger(Parser.class.getPackageName() + ".maxRecursion", 1_000);
+  /**
+   * Maximum nesting depth of structures when building values. The system property is named for historic reasons, as values used to be built recursively.
+   */
+  private static final int MAX_NESTING_DEPTH = Integer.getInteger(Parser.class.getPackageName() + ".maxRecursion", 1_000);
 
 
   private static boolean isNumberStart(int r) {
@@ -90,6 +96,16 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
 
   private final KeyStrategy keyStrategy;
 
+  /**
+   * Parser for numbers, reused for every number in the input.
+   */
+  private final NumberParser numberParser;
+
+  /**
+   * Parser for strings, reused for every string in the input.
+   */
+  private final StringParser stringParser;
+
   /**
    * Depth of nesting containers from document root.
    */
@@ -152,6 +168,8 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
   public Parser(Reader reader, KeyStrategy keyStrategy) {
     input = new Input(reader);
     this.keyStrategy = keyStrategy;
+    numberParser = new NumberParser(input);
+    stringParser = new StringParser(input);
   }
 
 
@@ -201,23 +219,6 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
   }
 
 
-  private CJArray doArray(int recursion) {
-    checkState(Event.START_ARRAY);
-    CJArray array = new CJArray();
-    while (true) {
-      if (!hasNext()) {
-        throw new JsonParsingException("Array was not terminated.", input.getLocation());
-      }
-      iteratorFetchNext();
-      if (lastEvent == Event.END_ARRAY) {
-        break;
-      }
-      array.add(doValue(recursion));
-    }
-    return array;
-  }
-
-
   private void doNextInArray() {
     int r = skipWhite();
 
@@ -372,69 +373,75 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
   }
 
 
-  private CJObject doObject(int recursion) {
-    checkState(Event.START_OBJECT);
-    CJObject object = new CJObject();
+  /**
+   * Build the array or object that has just been started. An explicit stack is used rather than recursion, so deeply nested structures consume heap rather
+   * than thread stack.
+   *
+   * @return the structure
+   */
+  private Canonical doStructure() {
+    ArrayList<Object> stack = new ArrayList<>();
+    ArrayList<String> keys = new ArrayList<>();
+    Object current = startValue(stack, keys, null);
+
     while (true) {
-      ensureNextInObject();
-      iteratorFetchNext();
-      if (lastEvent == Event.END_OBJECT) {
-        break;
-      }
-      if (lastEvent != Event.KEY_NAME) {
-        throw new JsonParsingException("Encountered " + lastEvent + " when only key name was valid.", input.getLocation());
+      String key = null;
+      if (current instanceof MemberList) {
+        ensureNextInObject();
+        iteratorFetchNext();
+        if (lastEvent != Event.END_OBJECT) {
+          if (lastEvent != Event.KEY_NAME) {
+            throw new JsonParsingException("Encountered " + lastEvent + " when only key name was valid.", input.getLocation());
+          }
+          key = getString();
+
+          ensureNextInObject();
+          iteratorFetchNext();
+          if (lastEvent == Event.KEY_NAME || lastEvent == Event.END_ARRAY || lastEvent == Event.END_OBJECT) {
+            throw new IllegalStateException("Invalid event generated during parsing: " + lastEvent);
+          }
+        }
+      } else {
+        if (!hasNext()) {
+          throw new JsonParsingException("Array was not terminated.", input.getLocation());
+        }
+        iteratorFetchNext();
       }
-      String key = getString();
 
-      ensureNextInObject();
-      iteratorFetchNext();
-      if (lastEvent == Event.KEY_NAME || lastEvent == Event.END_ARRAY || lastEvent == Event.END_OBJECT) {
-        throw new IllegalStateException("Invalid event generated during parsing: " + lastEvent);
+      Canonical child;
+      if (lastEvent == Event.END_ARRAY || lastEvent == Event.END_OBJECT) {
+        // The current structure is complete.
+        int last = stack.size() - 1;
+        Object done = stack.remove(last);
+        key = keys.remove(last);
+        child = (done instanceof MemberList) ? toObject((MemberList) done) : (CJArray) done;
+        if (last == 0) {
+          return child;
+        }
+        current = stack.get(last - 1);
+      } else if (lastEvent == Event.START_ARRAY || lastEvent == Event.START_OBJECT) {
+        current = startValue(stack, keys, key);
+        continue;
+      } else {
+        child = value;
       }
 
-      Canonical value = doValue(recursion);
-      switch (keyStrategy) {
-        case FIRST:
-          object.putIfAbsent(key, value);
-          break;
-        case NONE:
-          if (object.containsKey(key)) {
-            throw new JsonParsingException("Duplicate key: " + key, input.getLocation());
-          }
-          object.put(key, value);
-          break;
-        default:
-          object.put(key, value);
-          break;
+      if (current instanceof MemberList) {
+        ((MemberList) current).add(key, child);
+      } else {
+        ((CJArray) current).add(child);
       }
     }
-
-    return object;
   }
 
 
-  private Canonical doValue(int recursion) {
-    if (recursion > MAX_RECURSION_DEPTH) {
-      throw new JsonParsingException("Json structure has exceeded the configured maximum nesting depth of " + MAX_RECURSION_DEPTH, input.getLocation());
-    }
+  private Canonical doValue() {
     if (lastEvent == Event.KEY_NAME || lastEvent == Event.END_ARRAY || lastEvent == Event.END_OBJECT) {
       throw new IllegalStateException("Parser is not at start of value, but at " + lastEvent);
     }
-
-    try {
-      if (lastEvent == Event.START_ARRAY) {
-        return doArray(recursion + 1);
-      }
-      if (lastEvent == Event.START_OBJECT) {
-        return doObject(recursion + 1);
-      }
-    } catch (StackOverflowError e) {
-      throw new JsonParsingException(
-          "Json structure was less than configured maximum nesting depth of " + MAX_RECURSION_DEPTH + " but parsing failed at " + depth,
-          input.getLocation()
-      );
+    if (lastEvent == Event.START_ARRAY || lastEvent == Event.START_OBJECT) {
+      return doStructure();
     }
-
     return value;
   }
 
@@ -467,7 +474,8 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
 
   @Override
   public CJArray getArray() {
-    return doArray(0);
+    checkState(Event.START_ARRAY);
+    return (CJArray) doStructure();
   }
 
 
@@ -518,7 +526,8 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
 
   @Override
   public CJObject getObject() {
-    return doObject(0);
+    checkState(Event.START_OBJECT);
+    return (CJObject) doStructure();
   }
 
 
@@ -546,7 +555,7 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
 
   @Override
   public Canonical getValue() {
-    return doValue(0);
+    return doValue();
   }
 
 
@@ -632,7 +641,6 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
    * @param r the initial character of the number
    */
   private void parseNumber(int r) {
-    NumberParser numberParser = new NumberParser(input);
     value = numberParser.parse(r);
     nextEvent = Event.VALUE_NUMBER;
   }
@@ -642,9 +650,39 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
    * Parse a string from the input.
    */
   private void parseString() {
-    StringParser parser = new StringParser(input);
-    String val = parser.parse();
-    value = CJString.create(val);
+    value = CJString.createCompact(stringParser.parse());
+  }
+
+
+  /**
+   * Reset this parser so that it reads a new document from the specified reader. The previous reader is not closed. The configuration of this parser is
+   * retained, as are its internal working buffers, so re-using a parser avoids the allocations needed to create a new one.
+   *
+   * @param reader the new reader
+   */
+  public void reset(Reader reader) {
+    input.reset(reader);
+    depth = -1;
+    expectingKey = false;
+    hasNextCalled = false;
+    lastEvent = null;
+    nextEvent = null;
+    nextExists = false;
+    seenFirstRoot = false;
+    structureTag = new StructureTag(null);
+    value = CJNull.NULL;
+  }
+
+
+  /**
+   * Set whether the location in the input is calculated lazily. When lazy, line and column numbers are only calculated when a location is actually needed,
+   * such as for an error message, which removes that bookkeeping from the processing of every character. The stream offset is always exact, but the line
+   * number is reported as -1 if earlier input was discarded without a location being requested.
+   *
+   * @param lazyLocation if true, calculate locations lazily
+   */
+  public void setLazyLocation(boolean lazyLocation) {
+    input.setLazyLocation(lazyLocation);
   }
 
 
@@ -724,4 +762,42 @@ public class Parser extends BaseIterator<JsonParser.Event> implements JsonParser
     isObject[depth] = startObject;
   }
 
+
+  /**
+   * Start a new array or object whilst building a structure.
+   *
+   * @param stack the structures being built
+   * @param keys  the keys the structures will be stored under in their parents
+   * @param key   the key for the new structure, if its parent is an object
+   *
+   * @return the new array, or the members of the new object
+   */
+  private Object startValue(ArrayList<Object> stack, ArrayList<String> keys, String key) {
+    if (stack.size() >= MAX_NESTING_DEPTH) {
+      throw new JsonParsingException("Json structure has exceeded the configured maximum nesting depth of " + MAX_NESTING_DEPTH, input.getLocation());
+    }
+    // the members of an object are collected so the object can be created with its final storage
+    Object structure = (lastEvent == Event.START_ARRAY) ? new CJArray() : new MemberList();
+    stack.add(structure);
+    keys.add(key);
+    return structure;
+  }
+
+
+
+  /**
+   * Create an object from its members, applying the key strategy.
+   *
+   * @param members the members
+   *
+   * @return the object
+   */
+  private CJObject toObject(MemberList members) {
+    try {
+      return members.toObject(keyStrategy);
+    } catch (JsonException e) {
+      throw new JsonParsingException(e.getMessage(), input.getLocation());
+    }
+  }
+
 }
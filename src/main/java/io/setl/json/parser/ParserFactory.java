@@ -21,21 +21,51 @@ import jakarta.json.stream.JsonParserFactory;
  */
 public class ParserFactory implements JsonParserFactory {
 
+  /**
+   * Should the parser calculate line and column numbers only when a location is required?. By default, the location is updated as every character is read.
+   * When lazy, the line number may not be available.
+   */
+  public static final String LAZY_LOCATION = "setl.json.parser.lazyLocation";
+
   /** Should the parser expect a single root value in a stream, or multiple ones?. By default, the parser expects a single root. */
   public static final String REQUIRE_SINGLE_ROOT = "setl.json.parser.requireSingleRoot";
 
+  private boolean lazyLocation = false;
+
   private boolean singleRoot = true;
 
 
   /**
    * New instance.
    *
-   * @param config Configuration - may be null or specify if a single root is required (which defaults to true).
+   * @param config Configuration - may be null or specify if a single root is required (which defaults to true), and if locations are calculated lazily
+   *               (which defaults to false).
    */
   public ParserFactory(Map<String, ?> config) {
-    if (config != null && config.containsKey(REQUIRE_SINGLE_ROOT)) {
+    if (config == null) {
+      return;
+    }
+    if (config.containsKey(REQUIRE_SINGLE_ROOT)) {
       singleRoot = Boolean.parseBoolean(String.valueOf(config.get(REQUIRE_SINGLE_ROOT)));
     }
+    if (config.containsKey(LAZY_LOCATION)) {
+      lazyLocation = Boolean.parseBoolean(String.valueOf(config.get(LAZY_LOCATION)));
+    }
+  }
+
+
+  /**
+   * Create an iterator that lazily parses the elements of a root array, using this factory's settings. The reader is closed when the iterator is exhausted
+   * or closed.
+   *
+   * @param reader the input
+   *
+   * @return the iterator
+   */
+  public ArrayElementIterator createArrayIterator(Reader reader) {
+    Parser parser = new Parser(reader);
+    parser.setLazyLocation(lazyLocation);
+    return new ArrayElementIterator(parser);
   }
 
 
@@ -43,6 +73,7 @@ public class ParserFactory implements JsonParserFactory {
   public JsonParser createParser(Reader reader) {
     Parser parser = new Parser(reader);
     parser.setRequireSingleRoot(singleRoot);
+    parser.setLazyLocation(lazyLocation);
     return parser;
   }
 
@@ -74,6 +105,7 @@ public class ParserFactory implements JsonParserFactory {
   @Override
   public Map<String, ?> getConfigInUse() {
     TreeMap<String, Object> map = new TreeMap<>();
+    map.put(LAZY_LOCATION, lazyLocation);
     map.put(REQUIRE_SINGLE_ROOT, singleRoot);
     return Collections.unmodifiableSortedMap(map);
   }
@@ -7,7 +7,7 @@ import jakarta.json.stream.JsonParsingException;
 import io.setl.json.io.Input;
 
 /**
- * Parse a JSON String.
+ * Parse a JSON String. An instance may be used to parse many strings from the same input, reusing its working buffer.
  *
  * @author Simon Greatrix on 13/01/2020.
  */
@@ -25,12 +25,18 @@ class StringParser {
   }
 
 
-  String parse() {
+  /**
+   * Parse a string. The returned characters are held in the working buffer, so are only valid until the next string is parsed.
+   *
+   * @return the characters of the string
+   */
+  CharSequence parse() {
+    buf.setLength(0);
     while (true) {
       int r = input.read();
       if (r == '"') {
         // seen closing quote, we are done.
-        return buf.toString();
+        return buf;
       }
       if (r == -1) {
         // seen EOF before closing quote
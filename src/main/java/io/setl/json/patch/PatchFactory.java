@@ -14,6 +14,7 @@ import jakarta.json.JsonValue.ValueType;
 
 import org.apache.commons.collections4.ListUtils;
 
+import io.setl.json.CJObject;
 import io.setl.json.patch.key.ArrayKey;
 import io.setl.json.patch.key.Key;
 import io.setl.json.patch.key.ObjectKey;
@@ -184,6 +185,11 @@ public final class PatchFactory {
 
 
   private void compareObjects(Key path, JsonObject source, JsonObject target) {
+    if (source instanceof CJObject && target instanceof CJObject) {
+      compareObjects(path, ((CJObject) source).cursor(), ((CJObject) target).cursor());
+      return;
+    }
+
     TreeSet<String> allNames = new TreeSet<>(source.keySet());
     allNames.addAll(target.keySet());
     for (String name : allNames) {
@@ -208,6 +214,48 @@ public final class PatchFactory {
   }
 
 
+  /**
+   * Compare two canonical objects by walking both in canonical order, which requires neither a combined key set nor any look-ups.
+   *
+   * @param path   the path to the objects
+   * @param source the source object's members
+   * @param target the target object's members
+   */
+  private void compareObjects(Key path, CJObject.Cursor source, CJObject.Cursor target) {
+    boolean hasSource = source.next();
+    boolean hasTarget = target.next();
+    while (hasSource || hasTarget) {
+      int order;
+      if (!hasSource) {
+        order = 1;
+      } else if (!hasTarget) {
+        order = -1;
+      } else {
+        order = CJObject.CODE_POINT_ORDER.compare(source.getKey(), target.getKey());
+      }
+
+      if (order == 0) {
+        // in both source and target, so generate diffs
+        generateDiffs(new ObjectKey(path, source.getKey()), source.getValue(), target.getValue());
+        hasSource = source.next();
+        hasTarget = target.next();
+      } else if (order < 0) {
+        // only in source, so remove
+        String childPath = new ObjectKey(path, source.getKey()).toString();
+        if (features.contains(DiffFeatures.EMIT_TESTS)) {
+          patchBuilder.test(childPath, source.getValue());
+        }
+        patchBuilder.remove(childPath);
+        hasSource = source.next();
+      } else {
+        // only in target, so add
+        patchBuilder.add(new ObjectKey(path, target.getKey()).toString(), target.getValue());
+        hasTarget = target.next();
+      }
+    }
+  }
+
+
   private void generateDiffs(JsonValue source, JsonValue target) {
     if (features.contains(DiffFeatures.EMIT_DIGEST)) {
       patchBuilder.digest("", source);
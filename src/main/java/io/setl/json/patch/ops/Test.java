@@ -18,6 +18,7 @@ import com.fasterxml.jackson.annotation.JsonProperty;
 
 import io.setl.json.CJObject;
 import io.setl.json.Canonical;
+import io.setl.json.ParallelWriter;
 import io.setl.json.builder.ObjectBuilder;
 import io.setl.json.exception.IncorrectDigestException;
 import io.setl.json.exception.IncorrectValueException;
@@ -48,18 +49,40 @@ public class Test extends PatchOperation {
    * @throws JsonException if the algorithm is invalid
    */
   public static byte[] digest(String algorithm, JsonValue jsonValue) {
+    MessageDigest hash = getDigest(algorithm);
+    String canonical = Canonical.toCanonicalString(Canonical.cast(jsonValue));
+    return hash.digest(canonical.getBytes(UTF_8));
+  }
+
+
+  /**
+   * Calculate the digest of the canonical representation of a JsonValue, using the specified algorithm. The canonical representation is serialized in
+   * parallel by the writer, and hashed as it is produced. The result is identical to {@link #digest(String, JsonValue)}.
+   *
+   * @param algorithm the algorithm. If null or empty, the default algorithm is used.
+   * @param jsonValue the value
+   * @param writer    the parallel writer
+   *
+   * @return the digest
+   *
+   * @throws JsonException if the algorithm is invalid
+   */
+  public static byte[] digest(String algorithm, JsonValue jsonValue, ParallelWriter writer) {
+    MessageDigest hash = getDigest(algorithm);
+    writer.update(hash, Canonical.cast(jsonValue));
+    return hash.digest();
+  }
+
+
+  private static MessageDigest getDigest(String algorithm) {
     if (algorithm == null || algorithm.isEmpty()) {
       algorithm = DEFAULT_DIGEST;
     }
-    MessageDigest hash;
     try {
-      hash = MessageDigest.getInstance(algorithm);
+      return MessageDigest.getInstance(algorithm);
     } catch (NoSuchAlgorithmException e) {
       throw new JsonException("Invalid digest algorithm: \"" + algorithm + "\"", e);
     }
-
-    String canonical = Canonical.toCanonicalString(Canonical.cast(jsonValue));
-    return hash.digest(canonical.getBytes(UTF_8));
   }
 
 
@@ -25,6 +25,13 @@ public class CJFalse extends CJBase implements CJBoolean {
     return JsonValue.FALSE.equals(obj);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    // this is a singleton, so retains nothing
+    return 0;
+  }
+
+
 
   @Override
   public Boolean getValue() {
@@ -27,6 +27,12 @@ public class CJJson extends CJBase {
     return super.equals(other);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    return MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE) + MemorySize.ofString(json);
+  }
+
+
 
   @Override
   public Object getValue() {
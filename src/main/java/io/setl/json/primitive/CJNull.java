@@ -25,6 +25,13 @@ public class CJNull extends CJBase {
     return JsonValue.NULL.equals(obj);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    // this is a singleton, so retains nothing
+    return 0;
+  }
+
+
 
   @Override
   public Object getValue() {
@@ -1,25 +1,79 @@
 package io.setl.json.primitive;
 
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.Objects;
 import javax.annotation.Nonnull;
 import jakarta.json.JsonString;
 
+import io.setl.json.io.Utf8Appendable;
+import io.setl.json.io.Utf8Writer;
 import io.setl.json.primitive.cache.CacheManager;
 import io.setl.json.primitive.cache.ICache;
 
 /**
  * Representation of JSON strings.
  *
+ * <p>A long string which only contains ASCII characters that do not require escaping, such as Base-64 encoded data, may be held compactly as its
+ * canonical UTF-8 representation instead of as a String. Such a string is written to UTF-8 outputs without being encoded. Its value is decoded whenever it
+ * is required, and is not retained, so only the compact form is ever held.</p>
+ *
  * @author Simon Greatrix on 08/01/2020.
  */
 public class CJString extends CJBase implements JsonString {
 
   private static final byte[] ESCAPES;
 
+  /** The recently written keys. A key's slot is found from its hash, and a new key replaces whatever was in its slot. */
+  private static final EncodedKey[] KEY_CACHE = new EncodedKey[Integer.highestOneBit(
+      Math.max(1, Integer.getInteger(CJString.class.getPackageName() + ".keyCacheSize", 1024))
+  )];
+
+  /** Maximum length of a string for which the UTF-8 encoded canonical representation is retained. */
+  private static final int MAX_UTF8_LENGTH = Integer.getInteger(CJString.class.getPackageName() + ".utf8MaxLength", 100);
+
   /** Canonical form uses upper-case hexadecimal. */
   private static final char[] HEX = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F'};
 
+  /** Shared instances of the empty string and of every single ASCII character, which are used without consulting the cache. */
+  private static final CJString[] SHORT_STRINGS;
+
+
+
+  /** A key which has been written, and its canonical UTF-8 representation once it has been written more than once. */
+  private static final class EncodedKey {
+
+    final String key;
+
+    final byte[] utf8;
+
+
+    EncodedKey(String key, byte[] utf8) {
+      this.key = key;
+      this.utf8 = utf8;
+    }
+
+  }
+
+
+
+  /**
+   * Append canonical UTF-8 to an output which accepts it.
+   *
+   * @param writer the output, which must be a UTF-8 output
+   * @param bytes  the UTF-8
+   */
+  private static void appendUtf8(Appendable writer, byte[] bytes) throws IOException {
+    if (writer instanceof Utf8Appendable) {
+      ((Utf8Appendable) writer).appendUtf8(bytes);
+    } else {
+      ((Utf8Writer) writer).appendUtf8(bytes);
+    }
+  }
+
 
   /**
    * Append a Unicode escape to a buffer.
@@ -40,11 +94,48 @@ public class CJString extends CJBase implements JsonString {
    * @return the instance
    */
   public static CJString create(@Nonnull String value) {
+    int length = value.length();
+    if (length == 0) {
+      return SHORT_STRINGS[0];
+    }
+    if (length == 1 && value.charAt(0) < 128) {
+      return SHORT_STRINGS[1 + value.charAt(0)];
+    }
     ICache<String, CJString> cache = CacheManager.stringCache();
     return cache.get(value, CJString::new);
   }
 
 
+  /**
+   * Get an instance that encapsulates the specified value. If the value is long and only contains ASCII characters that do not require escaping,
+   * the instance holds the canonical UTF-8 representation instead of a String.
+   *
+   * @param value the value
+   *
+   * @return the instance
+   */
+  public static CJString createCompact(@Nonnull CharSequence value) {
+    final int length = value.length();
+    if (length <= MAX_UTF8_LENGTH) {
+      return create(value.toString());
+    }
+    for (int i = 0; i < length; i++) {
+      char ch = value.charAt(i);
+      if (ch >= 128 || ESCAPES[ch] != 0) {
+        return create(value.toString());
+      }
+    }
+
+    byte[] bytes = new byte[length + 2];
+    bytes[0] = '"';
+    for (int i = 0; i < length; i++) {
+      bytes[i + 1] = (byte) value.charAt(i);
+    }
+    bytes[length + 1] = '"';
+    return new CJString(bytes);
+  }
+
+
   /**
    * Create a properly escaped canonical representation of the provided value.
    *
@@ -87,27 +178,38 @@ public class CJString extends CJBase implements JsonString {
   public static void format(Appendable buf, String input) throws IOException {
     // opening quote
     buf.append('"');
+    formatContent(buf, input, indexOfEscape(input));
 
-    int i = 0;
-    int l = input.length();
-    while (i < l) {
-      char ch = input.charAt(i);
+    // closing quote
+    buf.append('"');
+  }
 
-      if (ch < 128) {
-        // Handle the ASCII characters, and C0 block
-        i = formatAscii(buf, input, i);
-      } else if (ch < Character.MIN_HIGH_SURROGATE || Character.MAX_LOW_SURROGATE < ch) {
-        // Normal character
-        buf.append(ch);
-        i++;
-      } else {
-        // it's a surrogate
-        i = formatSurrogate(buf, input, i);
+
+  /**
+   * Format an object key in its canonical JSON representation and append it to the buffer. Keys are usually repeated, so when the buffer is a UTF-8
+   * output, the canonical UTF-8 of a short key which has been written before is taken from a small cache rather than being escaped and encoded again.
+   *
+   * @param buf the output buffer
+   * @param key the key
+   *
+   * @throws IOException if the write fails
+   */
+  public static void formatKey(Appendable buf, String key) throws IOException {
+    if (key.length() <= MAX_UTF8_LENGTH && isUtf8(buf)) {
+      int slot = key.hashCode() & (KEY_CACHE.length - 1);
+      EncodedKey encoded = KEY_CACHE[slot];
+      if (encoded != null && encoded.key.equals(key)) {
+        if (encoded.utf8 == null) {
+          // second use, so it is worth encoding
+          encoded = new EncodedKey(encoded.key, format(key).getBytes(UTF_8));
+          KEY_CACHE[slot] = encoded;
+        }
+        appendUtf8(buf, encoded.utf8);
+        return;
       }
+      KEY_CACHE[slot] = new EncodedKey(key, null);
     }
-
-    // closing quote
-    buf.append('"');
+    format(buf, key);
   }
 
 
@@ -129,56 +231,92 @@ public class CJString extends CJBase implements JsonString {
   }
 
 
-  private static int formatAscii(Appendable buf, String input, int i) throws IOException {
+  /**
+   * Append the escaped content of a string, without the enclosing quotes. Characters that do not require escaping are appended in runs.
+   *
+   * @param buf   the output buffer
+   * @param input the text to format
+   * @param i     the index of the first character that requires escaping, or -1 if none do
+   *
+   * @throws IOException if the write fails
+   */
+  private static void formatContent(Appendable buf, String input, int i) throws IOException {
     final int l = input.length();
+    if (i == -1) {
+      buf.append(input);
+      return;
+    }
+
+    // start of the current run of characters that do not need escaping
+    int start = 0;
     while (i < l) {
       char ch = input.charAt(i);
-      if (ch >= 128) {
-        return i;
-      }
-
-      switch (ESCAPES[ch]) {
-        case 0:
+      if (ch < 128) {
+        int escape = ESCAPES[ch];
+        if (escape == 0) {
           // normal character
-          buf.append(ch);
-          break;
-        case 1:
+          i++;
+          continue;
+        }
+        buf.append(input, start, i);
+        if (escape == 1) {
           // unicode escape
           buf.append("\\u00").append(HEX[ch >>> 4]).append(HEX[ch & 0xf]);
-          break;
-        default:
+        } else {
           // special escape
-          buf.append('\\').append((char) ESCAPES[ch]);
-          break;
+          buf.append('\\').append((char) escape);
+        }
+        i++;
+        start = i;
+      } else if (ch < Character.MIN_HIGH_SURROGATE || Character.MAX_LOW_SURROGATE < ch) {
+        // Normal character
+        i++;
+      } else if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(input.charAt(i + 1))) {
+        // high and then low surrogate, so all good!
+        i += 2;
+      } else {
+        // a lone surrogate, must escape
+        buf.append(input, start, i);
+        appendUnicode(buf, ch);
+        i++;
+        start = i;
       }
-
-      i++;
     }
-    return i;
+
+    buf.append(input, start, l);
   }
 
 
-  private static int formatSurrogate(Appendable buf, String input, int i) throws IOException {
+  /**
+   * Find the first character in the input that requires escaping.
+   *
+   * @param input the text to check
+   *
+   * @return the index of the first character that requires escaping, or -1 if none do
+   */
+  private static int indexOfEscape(String input) {
     final int l = input.length();
-    char ch0 = input.charAt(i);
-    i++;
-    if (Character.isLowSurrogate(ch0) || i == l) {
-      // Trailing surrogate without a leading surrogate, must escape
-      appendUnicode(buf, ch0);
-      return i;
+    for (int i = 0; i < l; i++) {
+      char ch = input.charAt(i);
+      if (ch < 128) {
+        if (ESCAPES[ch] != 0) {
+          return i;
+        }
+      } else if (Character.MIN_HIGH_SURROGATE <= ch && ch <= Character.MAX_LOW_SURROGATE) {
+        if (Character.isHighSurrogate(ch) && i + 1 < l && Character.isLowSurrogate(input.charAt(i + 1))) {
+          // a valid surrogate pair
+          i++;
+        } else {
+          return i;
+        }
+      }
     }
+    return -1;
+  }
 
-    // we have a high surrogate with a following character - is it a low surrogate?
-    char ch1 = input.charAt(i);
-    if (Character.isLowSurrogate(ch1)) {
-      // high and then low surrogate, so all good!
-      buf.append(ch0).append(ch1);
-      return i + 1;
-    }
 
-    // high surrogate not followed by low surrogate
-    appendUnicode(buf, ch0);
-    return i;
+  private static boolean isUtf8(Appendable appendable) {
+    return appendable instanceof Utf8Appendable || appendable instanceof Utf8Writer;
   }
 
 
@@ -200,16 +338,42 @@ public class CJString extends CJBase implements JsonString {
     escaped['"'] = '"';
 
     ESCAPES = escaped;
+
+    CJString[] shortStrings = new CJString[129];
+    shortStrings[0] = new CJString("");
+    for (int i = 0; i < 128; i++) {
+      shortStrings[1 + i] = new CJString(String.valueOf((char) i));
+    }
+    SHORT_STRINGS = shortStrings;
   }
 
+  /** The value, or null if this is held compactly. */
   private final String value;
 
+  /**
+   * The UTF-8 encoded canonical representation. Null until first required, and only retained for short strings and compact strings. Instances are shared
+   * between threads through the cache, so this is volatile to ensure the array's contents are visible.
+   */
+  private volatile byte[] utf8;
+
+  /**
+   * The escaped content of the string, without the enclosing quotes. Null until first required. If no escaping is required, this is the same instance as
+   * the value. Never set for a compact string, as a compact string never requires escaping.
+   */
+  private String escaped;
+
 
   private CJString(String value) {
     this.value = value;
   }
 
 
+  private CJString(byte[] utf8) {
+    value = null;
+    this.utf8 = utf8;
+  }
+
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -219,10 +383,52 @@ public class CJString extends CJBase implements JsonString {
       return false;
     }
 
+    if (value == null && o instanceof CJString && ((CJString) o).value == null) {
+      // both compact
+      return Arrays.equals(utf8, ((CJString) o).utf8);
+    }
+
     JsonString jsonString = (JsonString) o;
     return Objects.equals(getString(), jsonString.getString());
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    long size = MemorySize.align(MemorySize.OBJECT_HEADER + 3 * MemorySize.REFERENCE);
+    if (value != null) {
+      size += MemorySize.ofString(value);
+    }
+    byte[] bytes = utf8;
+    if (bytes != null) {
+      size += MemorySize.ofArray(1, bytes.length);
+    }
+    String e = escaped;
+    if (e != null && e != value) {
+      size += MemorySize.ofString(e);
+    }
+    return size;
+  }
+
+
+
+  /**
+   * Get the canonical representation of this string, including the enclosing quotes, encoded as UTF-8. For short strings the array is retained and shared, so
+   * it must not be modified.
+   *
+   * @return the UTF-8 encoded canonical representation
+   */
+  public byte[] getCanonicalUtf8() {
+    byte[] bytes = utf8;
+    if (bytes == null) {
+      // The canonical form escapes all lone surrogates, so it encodes exactly.
+      bytes = toString().getBytes(UTF_8);
+      if (value.length() <= MAX_UTF8_LENGTH) {
+        utf8 = bytes;
+      }
+    }
+    return bytes;
+  }
+
 
   @Override
   public CharSequence getChars() {
@@ -230,9 +436,39 @@ public class CJString extends CJBase implements JsonString {
   }
 
 
+  private String getEscaped() {
+    if (value == null) {
+      // compact strings never require escaping
+      return getString();
+    }
+    String e = escaped;
+    if (e == null) {
+      int i = indexOfEscape(value);
+      if (i == -1) {
+        e = value;
+      } else {
+        StringBuilder buf = new StringBuilder(value.length() + 16);
+        try {
+          formatContent(buf, value, i);
+        } catch (IOException ioe) {
+          throw new InternalError("IO Exception without I/O", ioe);
+        }
+        e = buf.toString();
+      }
+      escaped = e;
+    }
+    return e;
+  }
+
+
   @Override
   public String getString() {
-    return value;
+    if (value != null) {
+      return value;
+    }
+    // Decode without retaining, so the string is never held twice
+    byte[] bytes = utf8;
+    return new String(bytes, 1, bytes.length - 2, ISO_8859_1);
   }
 
 
@@ -250,19 +486,64 @@ public class CJString extends CJBase implements JsonString {
 
   @Override
   public int hashCode() {
-    return super.hashCode();
+    if (value != null) {
+      return value.hashCode();
+    }
+
+    // Same as the String's hash code, without decoding the String
+    byte[] bytes = utf8;
+    int h = 0;
+    for (int i = 1; i < bytes.length - 1; i++) {
+      h = 31 * h + bytes[i];
+    }
+    return h;
+  }
+
+
+  /**
+   * Does this string require any escape sequences in its canonical representation?.
+   *
+   * @return true if escaping is required
+   */
+  public boolean isEscapeRequired() {
+    if (value == null) {
+      return false;
+    }
+    // When nothing is escaped, the escaped form is the value itself
+    return getEscaped() != value;
   }
 
 
   @Override
   public String toString() {
-    return format(value);
+    if (value == null) {
+      return new String(utf8, ISO_8859_1);
+    }
+    String e = getEscaped();
+    return new StringBuilder(e.length() + 2).append('"').append(e).append('"').toString();
   }
 
 
   @Override
   public void writeTo(Appendable writer) throws IOException {
-    format(writer, value);
+    if (value == null) {
+      if (isUtf8(writer)) {
+        writeUtf8(writer);
+      } else {
+        writer.append(toString());
+      }
+      return;
+    }
+    if (value.length() <= MAX_UTF8_LENGTH && isUtf8(writer)) {
+      writeUtf8(writer);
+      return;
+    }
+    writer.append('"').append(getEscaped()).append('"');
+  }
+
+
+  private void writeUtf8(Appendable writer) throws IOException {
+    appendUtf8(writer, getCanonicalUtf8());
   }
 
 }
@@ -42,6 +42,13 @@ public class CJTrue extends CJBase implements CJBoolean {
     return JsonValue.TRUE.equals(obj);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    // this is a singleton, so retains nothing
+    return 0;
+  }
+
+
 
   @Override
   public Boolean getValue() {
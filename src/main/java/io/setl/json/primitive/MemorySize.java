@@ -0,0 +1,114 @@
+package io.setl.json.primitive;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Constants and calculations for estimating the memory used by values. The estimates assume a 64-bit JVM with compressed object pointers and compact
+ * strings, which is the usual configuration for heaps smaller than 32GB. They are intended for sizing caches, not for exact accounting.
+ *
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public final class MemorySize {
+
+  /** Size of the header of an array. */
+  public static final int ARRAY_HEADER = 16;
+
+  /** Size of an ArrayList, not including its backing array. */
+  public static final int ARRAY_LIST = 24;
+
+  /** Size of a BigDecimal, not including its unscaled value. */
+  public static final int BIG_DECIMAL = 40;
+
+  /** Size of a BigInteger, not including its magnitude array. */
+  public static final int BIG_INTEGER = 40;
+
+  /** Size of the header of an object. */
+  public static final int OBJECT_HEADER = 12;
+
+  /** Size of a reference. */
+  public static final int REFERENCE = 4;
+
+  /** Size of a String, not including its backing array. */
+  public static final int STRING = 24;
+
+  /** Size of a TreeMap, not including its entries. */
+  public static final int TREE_MAP = 48;
+
+  /** Size of an entry in a TreeMap, not including its key and value. */
+  public static final int TREE_MAP_ENTRY = 40;
+
+
+  /**
+   * Round a size up to the 8 byte alignment of objects.
+   *
+   * @param size the size
+   *
+   * @return the aligned size
+   */
+  public static long align(long size) {
+    return (size + 7) & ~7L;
+  }
+
+
+  /**
+   * Estimate the memory used by an array.
+   *
+   * @param elementSize the size of each element
+   * @param length      the number of elements
+   *
+   * @return the estimated size
+   */
+  public static long ofArray(int elementSize, int length) {
+    return align(ARRAY_HEADER + (long) elementSize * length);
+  }
+
+
+  /**
+   * Estimate the memory used by a BigDecimal. Small unscaled values are held compactly and do not require a BigInteger.
+   *
+   * @param value the value
+   *
+   * @return the estimated size
+   */
+  public static long ofBigDecimal(BigDecimal value) {
+    BigInteger unscaled = value.unscaledValue();
+    return BIG_DECIMAL + ((unscaled.bitLength() < 64) ? 0 : ofBigInteger(unscaled));
+  }
+
+
+  /**
+   * Estimate the memory used by a BigInteger.
+   *
+   * @param value the value
+   *
+   * @return the estimated size
+   */
+  public static long ofBigInteger(BigInteger value) {
+    return BIG_INTEGER + ofArray(4, (value.bitLength() + 31) / 32);
+  }
+
+
+  /**
+   * Estimate the memory used by a String. Strings which only contain Latin-1 characters use one byte per character, others use two.
+   *
+   * @param value the string
+   *
+   * @return the estimated size
+   */
+  public static long ofString(String value) {
+    int length = value.length();
+    for (int i = 0; i < length; i++) {
+      if (value.charAt(i) > 0xff) {
+        return STRING + ofArray(2, length);
+      }
+    }
+    return STRING + ofArray(1, length);
+  }
+
+
+  private MemorySize() {
+    // do nothing
+  }
+
+}
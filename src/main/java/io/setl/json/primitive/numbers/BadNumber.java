@@ -5,6 +5,8 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import jakarta.json.stream.JsonParsingException;
 
+import io.setl.json.primitive.MemorySize;
+
 /**
  * An invalid number parsed in the JSON.
  *
@@ -55,6 +57,13 @@ class BadNumber extends CJNumber {
     return this == o;
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    // the failure is not included as it is shared with the parser
+    return MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE);
+  }
+
+
 
   @Override
   protected boolean equalsValue(long other) {
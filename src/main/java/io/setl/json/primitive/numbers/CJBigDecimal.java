@@ -1,10 +1,11 @@
 package io.setl.json.primitive.numbers;
 
 import java.io.IOException;
-import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import io.setl.json.primitive.MemorySize;
+
 /**
  * A BigDecimal number.
  *
@@ -12,6 +13,52 @@ import java.math.BigInteger;
  */
 public class CJBigDecimal extends CJNumber {
 
+  /** An instance which is shared through the number cache, and so retains its canonical text. */
+  static final class Shared extends CJBigDecimal {
+
+    /** The canonical text. Null until first required. As a String is immutable, a race to set this is harmless. */
+    private String canonical;
+
+
+    Shared(BigDecimal value) {
+      super(value);
+    }
+
+
+    @Override
+    public long estimateRetainedSize() {
+      String text = canonical;
+      return MemorySize.align(MemorySize.OBJECT_HEADER + 2 * MemorySize.REFERENCE) + MemorySize.ofBigDecimal(bigDecimalValue())
+          + ((text != null) ? MemorySize.ofString(text) : 0);
+    }
+
+
+    @Override
+    public String toString() {
+      String text = canonical;
+      if (text == null) {
+        text = super.format();
+        canonical = text;
+      }
+      return text;
+    }
+
+
+    @Override
+    public void writeTo(Appendable writer) throws IOException {
+      writer.append(toString());
+    }
+
+
+    @Override
+    public void writeTo(Appendable writer, char[] scratch) throws IOException {
+      writer.append(toString());
+    }
+
+  }
+
+
+
   private final BigDecimal value;
 
 
@@ -49,6 +96,12 @@ public class CJBigDecimal extends CJNumber {
     return super.equals(o);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    return MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE) + MemorySize.ofBigDecimal(value);
+  }
+
+
 
   @Override
   protected boolean equalsValue(long other) {
@@ -72,6 +125,55 @@ public class CJBigDecimal extends CJNumber {
   }
 
 
+  private String format() {
+    StringBuilder buf = new StringBuilder(value.precision() + 8);
+    try {
+      formatTo(buf, new char[SCRATCH_SIZE]);
+    } catch (IOException e) {
+      throw new InternalError("I/O exception without I/O", e);
+    }
+    return buf.toString();
+  }
+
+
+  private void formatTo(Appendable writer, char[] scratch) throws IOException {
+    // Handle zero
+    int signum = value.signum();
+    if (signum == 0) {
+      writer.append('0');
+      return;
+    }
+
+    // It's a floating point number. First deal with the sign.
+    if (signum == -1) {
+      writer.append('-');
+    }
+
+    // Get the digits, insert the decimal separator after the first digit, and append the exponent.
+    int precision = value.precision();
+    if (precision < 19) {
+      // the unscaled value fits in a long, so the digits are written from the scratch buffer
+      int start = fillDigits(scratch, value.unscaledValue().longValue());
+      writer.append(scratch[start]).append('.');
+      if (start + 1 == scratch.length) {
+        // A value like "0.03" has an unscaled value of "3" but the canonical representation requires a non-empty fractional part, so we have to add it.
+        writer.append('0');
+      } else {
+        append(writer, scratch, start + 1, scratch.length);
+      }
+    } else {
+      // the digits of a large value always include a fractional part
+      String unscaled = value.unscaledValue().toString(10);
+      int first = (signum == -1) ? 1 : 0;
+      writer.append(unscaled.charAt(first)).append('.').append(unscaled, first + 1, unscaled.length());
+    }
+
+    // use the scale and precision to calculate the correct exponent
+    writer.append('E');
+    appendLong(writer, (long) precision - value.scale() - 1, scratch);
+  }
+
+
   @Override
   public int getNumberType() {
     return TYPE_DECIMAL;
@@ -128,57 +230,19 @@ public class CJBigDecimal extends CJNumber {
 
   @Override
   public String toString() {
-    try (StringWriter writer = new StringWriter()) {
-      writeTo(writer);
-      return writer.toString();
-    } catch (IOException e) {
-      throw new InternalError("I/O exception without I/O", e);
-    }
+    return format();
   }
 
 
   @Override
   public void writeTo(Appendable writer) throws IOException {
-    // Handle zero
-    if (value.signum() == 0) {
-      writer.append("0");
-      return;
-    }
-
-    // It's a floating point number. First deal with a leading minus sign.
-    BigDecimal myValue;
-    String sign;
-    if (value.signum() == 1) {
-      sign = "";
-      myValue = value;
-    } else {
-      sign = "-";
-      myValue = value.negate();
-    }
+    formatTo(writer, new char[SCRATCH_SIZE]);
+  }
 
-    // Get the digits, insert the decimal separator, and append the exponent.
-    String unscaled = myValue.unscaledValue().toString(10);
-    String unscaledInt;
-    String unscaledFraction;
-    if (unscaled.length() == 1) {
-      // A value like "0.03" has an unscaled value of "3" but the canonical representation requires a non-empty fractional part, so we have to add it.
-      unscaledInt = unscaled;
-      unscaledFraction = "0";
-    } else {
-      // insert the decimal separator just after the first digit
-      unscaledInt = unscaled.substring(0, 1);
-      unscaledFraction = unscaled.substring(1);
-    }
 
-    // use the scale and precision to calculate the correct exponent
-    int scale = myValue.scale();
-    int precision = myValue.precision();
-    writer.append(sign);
-    writer.append(unscaledInt);
-    writer.append('.');
-    writer.append(unscaledFraction);
-    writer.append('E');
-    writer.append(Integer.toString(precision - scale - 1));
+  @Override
+  public void writeTo(Appendable writer, char[] scratch) throws IOException {
+    formatTo(writer, scratch);
   }
 
 }
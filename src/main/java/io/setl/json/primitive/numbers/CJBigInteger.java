@@ -3,6 +3,8 @@ package io.setl.json.primitive.numbers;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import io.setl.json.primitive.MemorySize;
+
 /**
  * A BigInteger number.
  *
@@ -24,6 +26,42 @@ public class CJBigInteger extends CJNumber {
    */
   public static final int MIN_SCALE = -30;
 
+
+
+  /** An instance which is shared through the number cache, and so retains its canonical text. */
+  static final class Shared extends CJBigInteger {
+
+    /** The canonical text. Null until first required. As a String is immutable, a race to set this is harmless. */
+    private String canonical;
+
+
+    Shared(BigInteger value) {
+      super(value);
+    }
+
+
+    @Override
+    public long estimateRetainedSize() {
+      String text = canonical;
+      return MemorySize.align(MemorySize.OBJECT_HEADER + 2 * MemorySize.REFERENCE) + MemorySize.ofBigInteger(bigIntegerValue())
+          + ((text != null) ? MemorySize.ofString(text) : 0);
+    }
+
+
+    @Override
+    public String toString() {
+      String text = canonical;
+      if (text == null) {
+        text = super.toString();
+        canonical = text;
+      }
+      return text;
+    }
+
+  }
+
+
+
   private final BigInteger value;
 
 
@@ -61,6 +99,12 @@ public class CJBigInteger extends CJNumber {
     return super.equals(o);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    return MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE) + MemorySize.ofBigInteger(value);
+  }
+
+
 
   @Override
   protected boolean equalsValue(long other) {
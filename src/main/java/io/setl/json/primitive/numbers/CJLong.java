@@ -1,8 +1,11 @@
 package io.setl.json.primitive.numbers;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
+import io.setl.json.primitive.MemorySize;
+
 /**
  * A number which is a Java long.
  *
@@ -47,6 +50,12 @@ public class CJLong extends CJNumber {
     return super.equals(o);
   }
 
+  @Override
+  public long estimateRetainedSize() {
+    return MemorySize.align(MemorySize.OBJECT_HEADER + 8);
+  }
+
+
 
   @Override
   protected boolean equalsValue(long other) {
@@ -133,4 +142,16 @@ public class CJLong extends CJNumber {
     return Long.toString(value);
   }
 
+
+  @Override
+  public void writeTo(Appendable writer) throws IOException {
+    appendLong(writer, value, null);
+  }
+
+
+  @Override
+  public void writeTo(Appendable writer, char[] scratch) throws IOException {
+    appendLong(writer, value, scratch);
+  }
+
 }
@@ -1,6 +1,7 @@
 package io.setl.json.primitive.numbers;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.Map;
@@ -13,6 +14,7 @@ import jakarta.json.JsonValue;
 
 import io.setl.json.Canonical;
 import io.setl.json.exception.NonFiniteNumberException;
+import io.setl.json.io.Utf8Appendable;
 import io.setl.json.primitive.CJBase;
 import io.setl.json.primitive.CJString;
 import io.setl.json.primitive.cache.CacheManager;
@@ -25,6 +27,9 @@ import io.setl.json.primitive.cache.ICache;
  */
 public abstract class CJNumber extends CJBase implements JsonNumber {
 
+  /** The size of the scratch buffer required by {@link #writeTo(Appendable, char[])}, which is enough for the digits and sign of any long. */
+  public static final int SCRATCH_SIZE = 20;
+
   /** The number is represented by a BigInteger. */
   public static final int TYPE_BIG_INT = 2;
 
@@ -58,6 +63,77 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
       Float.class, n -> simplify(n.floatValue())
   );
 
+  /** Shared instances for small integers, which are used without consulting any cache. */
+  private static final CJInt[] SMALL_INTS;
+
+  /** The largest integer which has a shared instance. */
+  private static final int SMALL_INT_MAX = Integer.getInteger(CJNumber.class.getPackageName() + ".smallIntMax", 1023);
+
+  /** The smallest integer which has a shared instance. */
+  private static final int SMALL_INT_MIN = Integer.getInteger(CJNumber.class.getPackageName() + ".smallIntMin", -128);
+
+
+  static {
+    CJInt[] smallInts = new CJInt[Math.max(0, SMALL_INT_MAX - SMALL_INT_MIN + 1)];
+    for (int i = 0; i < smallInts.length; i++) {
+      smallInts[i] = new CJInt(SMALL_INT_MIN + i);
+    }
+    SMALL_INTS = smallInts;
+  }
+
+
+  /**
+   * Append characters from a buffer to the output, without creating an intermediate object.
+   *
+   * @param writer the output
+   * @param chars  the buffer
+   * @param start  the index of the first character
+   * @param end    the index after the last character
+   *
+   * @throws IOException if the write fails
+   */
+  static void append(Appendable writer, char[] chars, int start, int end) throws IOException {
+    if (writer instanceof Writer) {
+      ((Writer) writer).write(chars, start, end - start);
+    } else if (writer instanceof StringBuilder) {
+      ((StringBuilder) writer).append(chars, start, end - start);
+    } else if (writer instanceof Utf8Appendable) {
+      ((Utf8Appendable) writer).append(chars, start, end - start);
+    } else {
+      for (int i = start; i < end; i++) {
+        writer.append(chars[i]);
+      }
+    }
+  }
+
+
+  /**
+   * Append the decimal digits of a long to the output, without creating an intermediate string.
+   *
+   * @param writer  the output
+   * @param value   the value to append
+   * @param scratch a buffer of at least {@link #SCRATCH_SIZE} characters, or null if one should be allocated if required
+   *
+   * @throws IOException if the write fails
+   */
+  static void appendLong(Appendable writer, long value, char[] scratch) throws IOException {
+    if (0 <= value && value < 10) {
+      writer.append((char) ('0' + value));
+      return;
+    }
+    if (writer instanceof StringBuilder) {
+      ((StringBuilder) writer).append(value);
+      return;
+    }
+
+    char[] chars = (scratch != null) ? scratch : new char[SCRATCH_SIZE];
+    int start = fillDigits(chars, value);
+    if (value < 0) {
+      chars[--start] = '-';
+    }
+    append(writer, chars, start, chars.length);
+  }
+
 
   /**
    * Convert a number into a JsonValue. IEEE floating point numbers may specify "Not A Number", "Positive Infinity", or "Negative Infinity". These three special
@@ -68,6 +144,10 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
    * @return the canonical JSON representation
    */
   public static CJNumber cast(Number value) {
+    CJNumber small = smallInt(value);
+    if (small != null) {
+      return small;
+    }
     ICache<Number, CJNumber> cache = CacheManager.valueCache();
     return cache.get(value, CJNumber::create);
   }
@@ -99,6 +179,10 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
    * @return the canonical JSON representation
    */
   public static Canonical castUnsafe(Number value) {
+    CJNumber small = smallInt(value);
+    if (small != null) {
+      return small;
+    }
     ICache<Number, CJNumber> cache = CacheManager.valueCache();
     try {
       return cache.get(value, CJNumber::create);
@@ -140,7 +224,8 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
    * @return the PNumber
    */
   public static CJNumber create(int i) {
-    return new CJInt(i);
+    CJNumber small = smallInt(i);
+    return (small != null) ? small : new CJInt(i);
   }
 
 
@@ -153,12 +238,51 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
    */
   public static CJNumber create(long l) {
     if (Integer.MIN_VALUE <= l && l <= Integer.MAX_VALUE) {
-      return new CJInt((int) l);
+      return create((int) l);
     }
     return new CJLong(l);
   }
 
 
+  /**
+   * Fill the end of a buffer with the decimal digits of the magnitude of a value.
+   *
+   * @param chars the buffer, which must have at least 19 characters
+   * @param value the value
+   *
+   * @return the index of the first digit
+   */
+  static int fillDigits(char[] chars, long value) {
+    // Work with a non-positive value, as Long.MIN_VALUE cannot be negated.
+    int start = chars.length;
+    long n = (value < 0) ? value : -value;
+    do {
+      long q = n / 10;
+      chars[--start] = (char) ('0' + (q * 10 - n));
+      n = q;
+    } while (n != 0);
+    return start;
+  }
+
+
+  /**
+   * Get an instance to share through the number cache. Big numbers are relatively expensive to format, so the shared instance retains its canonical text.
+   *
+   * @param number the number
+   *
+   * @return the instance to share
+   */
+  static CJNumber forCache(CJNumber number) {
+    if (number.getClass() == CJBigDecimal.class) {
+      return new CJBigDecimal.Shared(number.bigDecimalValue());
+    }
+    if (number.getClass() == CJBigInteger.class) {
+      return new CJBigInteger.Shared(number.bigIntegerValue());
+    }
+    return number;
+  }
+
+
   /**
    * Simplify a long into either a long or an int.
    *
@@ -244,6 +368,36 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
   }
 
 
+  /**
+   * Get the shared instance for a small integer.
+   *
+   * @param value the integer
+   *
+   * @return the shared instance, or null if there is not one
+   */
+  static CJInt smallInt(long value) {
+    if (SMALL_INT_MIN <= value && value <= SMALL_INT_MAX) {
+      return SMALL_INTS[(int) (value - SMALL_INT_MIN)];
+    }
+    return null;
+  }
+
+
+  /**
+   * Get the shared instance for a small integer.
+   *
+   * @param value the number, which may be of any type
+   *
+   * @return the shared instance, or null if the number is not a small integer
+   */
+  private static CJInt smallInt(Number value) {
+    if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+      return smallInt(value.longValue());
+    }
+    return null;
+  }
+
+
   /**
    * Recover a double from a canonical, allowing for NaN, Infinity and -Infinity.
    *
@@ -372,4 +526,18 @@ public abstract class CJNumber extends CJBase implements JsonNumber {
     writer.append(toString());
   }
 
+
+  /**
+   * Write this number to the output, using a buffer supplied by the caller for the digits. A formatter which writes many numbers can reuse one buffer, so
+   * that writing a number does not allocate.
+   *
+   * @param writer  the output
+   * @param scratch a buffer of at least {@link #SCRATCH_SIZE} characters
+   *
+   * @throws IOException if the write fails
+   */
+  public void writeTo(Appendable writer, char[] scratch) throws IOException {
+    writeTo(writer);
+  }
+
 }
@@ -287,6 +287,9 @@ public class NumberParser {
   }
 
 
+  /** Working buffer, reused for every number parsed. */
+  final StringBuilder buf = new StringBuilder();
+
   final Input input;
 
   boolean needBigDecimal;
@@ -336,8 +339,9 @@ public class NumberParser {
    * @throws JsonParsingException if the input is invalid
    */
   public CJNumber parse(int r) {
-    StringBuilder buf = new StringBuilder();
+    buf.setLength(0);
     buf.append((char) r);
+    needBigDecimal = false;
 
     // read rest of number
     Step step = Step.START.apply(r, this);
@@ -353,15 +357,18 @@ public class NumberParser {
       }
     }
 
-    String txt = buf.toString();
-
-    ICache<String, CJNumber> cache = CacheManager.numberCache();
     CJNumber pNumber;
     try {
-      if (needBigDecimal) {
-        pNumber = cache.get(txt, NumberParser::doCreateBigDecimal);
-      } else {
-        pNumber = cache.get(txt, NumberParser::doCreate);
+      // Small integers have shared instances, so do not need the cache
+      pNumber = (!needBigDecimal && buf.length() < 10) ? CJNumber.smallInt(Integer.parseInt(buf, 0, buf.length(), 10)) : null;
+      if (pNumber == null) {
+        String txt = buf.toString();
+        ICache<String, CJNumber> cache = CacheManager.numberCache();
+        if (needBigDecimal) {
+          pNumber = cache.get(txt, t -> CJNumber.forCache(doCreateBigDecimal(t)));
+        } else {
+          pNumber = cache.get(txt, t -> CJNumber.forCache(doCreate(t)));
+        }
       }
     } catch (NumberFormatException | ArithmeticException e) {
       pNumber = new BadNumber(new JsonParsingException("Invalid number", e, input.getLocation()));
@@ -31,6 +31,7 @@ import org.junit.jupiter.api.Test;
 
 import io.setl.json.exception.IncorrectTypeException;
 import io.setl.json.exception.MissingItemException;
+import io.setl.json.primitive.CJString;
 import io.setl.json.primitive.CJTrue;
 import io.setl.json.primitive.numbers.CJNumber;
 
@@ -345,6 +346,54 @@ public class CJArrayTest {
   }
 
 
+  @Test
+  public void testCopy() {
+    CJArray inner = new CJArray(Arrays.asList(1, 2));
+    CJArray ja = new CJArray();
+    ja.add(inner);
+    ja.add("a");
+    CJArray copy = ja.copy();
+    assertEquals(ja, copy);
+
+    // modify the copy, including a nested value
+    copy.add(3);
+    copy.getArray(0).add(CJNumber.create(3));
+    assertEquals("[[1,2,3],\"a\",3]", copy.toString());
+    assertEquals("[[1,2],\"a\"]", ja.toString());
+
+    // modify the original after it has been exposed
+    CJArray copy2 = ja.copy();
+    ja.getArray(0).clear();
+    assertEquals("[[],\"a\"]", ja.toString());
+    assertEquals("[[1,2],\"a\"]", copy2.toString());
+    assertEquals("[[1,2,3],\"a\",3]", copy.toString());
+
+    // a sub-list is a view of the original, but its copy is not
+    List<JsonValue> sub = ja.subList(1, 2);
+    CJArray copy3 = ((CJArray) sub).copy();
+    sub.set(0, CJTrue.TRUE);
+    assertEquals("[[],true]", ja.toString());
+    assertEquals("[\"a\"]", copy3.toString());
+  }
+
+
+  @Test
+  public void testEstimateRetainedSize() {
+    CJArray ja = new CJArray();
+    long empty = ja.estimateRetainedSize();
+    assertTrue(empty > 0);
+    ja.add("abc");
+    ja.add(new CJArray(Arrays.asList(1, 2)));
+    long full = ja.estimateRetainedSize();
+    assertTrue(full > empty + CJString.create("abc").estimateRetainedSize());
+
+    ja.freeze();
+    assertEquals(full, ja.estimateRetainedSize());
+    ja.toCanonicalString();
+    assertEquals(full, ja.estimateRetainedSize());
+  }
+
+
   @Test
   public void testFixCollection() {
     CJArray ja = new CJArray();
@@ -369,6 +418,57 @@ public class CJArrayTest {
   }
 
 
+  @Test
+  public void testFreeze() {
+    CJArray inner = new CJArray(Arrays.asList(1, 2));
+    CJArray ja = new CJArray();
+    ja.add(inner);
+    ja.add("a");
+    assertFalse(ja.isFrozen());
+    assertSame(ja, ja.freeze());
+    assertTrue(ja.isFrozen());
+    assertTrue(inner.isFrozen());
+    assertEquals(ja.hashCode(), ja.hashCode());
+    assertSame(ja.toCanonicalString(), ja.toCanonicalString());
+
+    assertThrows(UnsupportedOperationException.class, () -> ja.add("b"));
+    assertThrows(UnsupportedOperationException.class, () -> ja.getArray(0).add(CJTrue.TRUE));
+    assertThrows(UnsupportedOperationException.class, () -> ja.subList(0, 1).clear());
+    assertThrows(UnsupportedOperationException.class, () -> {
+      ListIterator<JsonValue> iterator = ja.listIterator();
+      iterator.next();
+      iterator.set(CJTrue.TRUE);
+    });
+
+    // a copy of a frozen array may be modified
+    CJArray copy = ja.copy();
+    assertFalse(copy.isFrozen());
+    copy.getArray(0).add(CJNumber.create(3));
+    copy.add("b");
+    assertEquals("[[1,2,3],\"a\",\"b\"]", copy.toString());
+    assertEquals("[[1,2],\"a\"]", ja.toString());
+  }
+
+
+  @Test
+  public void testFreezeWithView() {
+    CJArray ja = new CJArray(Arrays.asList(1, 2, 3));
+    List<JsonValue> view = ja.subList(0, 2);
+    ListIterator<JsonValue> iterator = ja.listIterator();
+    ja.freeze();
+    int hash = ja.hashCode();
+    String text = ja.toCanonicalString();
+
+    // views taken before freezing no longer modify the array
+    view.set(0, CJNumber.create(4));
+    iterator.next();
+    iterator.remove();
+    assertEquals("[1,2,3]", ja.toString());
+    assertEquals(hash, ja.hashCode());
+    assertSame(text, ja.toCanonicalString());
+  }
+
+
   @Test
   public void testGetArrayInt() {
     List<Integer> int1 = Arrays.asList(8, 9);
@@ -11,6 +11,7 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.AbstractMap.SimpleEntry;
@@ -26,6 +27,8 @@ import java.util.NavigableMap;
 import java.util.NavigableSet;
 import java.util.Set;
 import java.util.Spliterator;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
 import jakarta.json.JsonValue.ValueType;
 
@@ -34,6 +37,7 @@ import org.junit.jupiter.api.Test;
 
 import io.setl.json.exception.IncorrectTypeException;
 import io.setl.json.exception.MissingItemException;
+import io.setl.json.parser.Parser;
 import io.setl.json.primitive.CJString;
 import io.setl.json.primitive.cache.CacheManager;
 import io.setl.json.primitive.cache.ICache;
@@ -45,6 +49,49 @@ public class CJObjectTest {
   private final CJObject json = new CJObject();
 
 
+  @Test
+  public void applyShape() {
+    CJObject object1 = new CJObject();
+    object1.put(new String("id"), 1);
+    object1.put(new String("name"), "one");
+    CJObject object2 = new CJObject();
+    object2.put(new String("name"), "two");
+    object2.put(new String("id"), 2);
+    assertTrue(object1.applyShape());
+    assertTrue(object2.applyShape());
+    assertSame(object1.firstKey(), object2.firstKey());
+    assertEquals("{\"id\":1,\"name\":\"one\"}", object1.toString());
+
+    // changing a value keeps the shape, changing the keys does not
+    CJObject copy = object1.copy();
+    object1.put("name", "uno");
+    assertNotNull(object1.shapedStorage());
+    object1.put("extra", true);
+    assertNull(object1.shapedStorage());
+    assertEquals("{\"extra\":true,\"id\":1,\"name\":\"uno\"}", object1.toString());
+    assertEquals("{\"id\":1,\"name\":\"one\"}", copy.toString());
+    assertNotNull(copy.shapedStorage());
+
+    // a live view prevents the storage being replaced
+    NavigableMap<String, JsonValue> head = object1.headMap("id", true);
+    object1.remove("extra");
+    assertFalse(object1.applyShape());
+    assertEquals(1, head.size());
+
+    // parsed objects have a shape
+    CJArray array;
+    try (Parser parser = new Parser(new StringReader("[{\"a\":1,\"b\":2},{\"b\":3,\"a\":4}]"))) {
+      parser.next();
+      array = parser.getArray();
+    }
+    CJObject parsed1 = (CJObject) array.getObject(0);
+    CJObject parsed2 = (CJObject) array.getObject(1);
+    assertNotNull(parsed2.shapedStorage());
+    assertSame(parsed1.lastKey(), parsed2.lastKey());
+    assertEquals(4, parsed2.getInt("a"));
+  }
+
+
   @Test
   public void asJsonObject() {
     assertSame(json, json.asJsonObject());
@@ -91,6 +138,126 @@ public class CJObjectTest {
   }
 
 
+  @Test
+  public void copy() {
+    CJObject inner = new CJObject();
+    inner.put("x", 1);
+    CJObject object = new CJObject();
+    object.put("a", inner);
+    object.put("b", "c");
+    CJObject copy = object.copy();
+    assertEquals(object, copy);
+
+    // modify the copy, including a nested value
+    copy.put("d", 2);
+    copy.getObject("a").put("y", 2);
+    assertEquals("{\"a\":{\"x\":1,\"y\":2},\"b\":\"c\",\"d\":2}", copy.toString());
+    assertEquals("{\"a\":{\"x\":1},\"b\":\"c\"}", object.toString());
+
+    // copy a copy, then modify the original
+    CJObject copy2 = copy.copy();
+    copy.remove("a");
+    assertEquals("{\"b\":\"c\",\"d\":2}", copy.toString());
+    assertEquals("{\"a\":{\"x\":1,\"y\":2},\"b\":\"c\",\"d\":2}", copy2.toString());
+
+    // a sub-map is a view of the original, but its copy is not
+    NavigableMap<String, JsonValue> tail = copy2.tailMap("b", true);
+    CJObject copy3 = ((CJObject) tail).copy();
+    tail.put("e", CJString.create("f"));
+    assertEquals("{\"a\":{\"x\":1,\"y\":2},\"b\":\"c\",\"d\":2,\"e\":\"f\"}", copy2.toString());
+    assertEquals("{\"b\":\"c\",\"d\":2}", copy3.toString());
+  }
+
+
+  @Test
+  public void copyThenRead() {
+    CJObject inner = new CJObject();
+    inner.put("x", 1);
+    CJObject object = new CJObject();
+    object.put("a", inner);
+    object.put("b", "c");
+    CJObject copy = object.copy();
+
+    // reading primitives from either side does not stop a container read later being separate
+    assertEquals("c", copy.getString("b"));
+    assertEquals("c", object.getString("b"));
+    copy.forEach((k, v) -> assertNotNull(v));
+    copy.getObject("a").put("y", 2);
+    assertEquals("{\"a\":{\"x\":1},\"b\":\"c\"}", object.toString());
+    object.getObject("a").put("z", 3);
+    assertEquals("{\"a\":{\"x\":1,\"y\":2},\"b\":\"c\"}", copy.toString());
+  }
+
+
+  @Test
+  public void createConcurrent() throws InterruptedException {
+    CJObject object = CJObject.createConcurrent();
+    Thread[] threads = new Thread[8];
+    for (int t = 0; t < threads.length; t++) {
+      String key = "k" + (t % 2);
+      threads[t] = new Thread(() -> {
+        for (int i = 0; i < 1000; i++) {
+          object.merge(key, CJNumber.create(1), (v1, v2) -> CJNumber.create(((JsonNumber) v1).intValue() + ((JsonNumber) v2).intValue()));
+          object.toString();
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals("{\"k0\":4000,\"k1\":4000}", object.toString());
+
+    // members are in canonical order, and a copy has its own storage
+    object.put("\ud83d\ude00", "grin");
+    object.put("\uff01", "bang");
+    CJObject copy = object.copy();
+    object.remove("k0");
+    assertEquals("[k0, k1, \uff01, \ud83d\ude00]", copy.keySet().toString());
+    assertEquals("[k1, \uff01, \ud83d\ude00]", object.keySet().toString());
+    assertFalse(object.applyShape());
+  }
+
+
+  @Test
+  public void cursor() {
+    json.clear();
+    json.put("b", 2);
+    json.put("a", "x");
+    json.put("c", new CJArray());
+    CJObject.Cursor cursor = json.cursor();
+    assertThrows(IllegalStateException.class, cursor::getKey);
+
+    StringBuilder buf = new StringBuilder();
+    while (cursor.next()) {
+      buf.append(cursor.getKey()).append('=').append(cursor.getValue()).append(';');
+    }
+    assertEquals("a=\"x\";b=2;c=[];", buf.toString());
+    assertFalse(cursor.next());
+
+    cursor.reset();
+    assertTrue(cursor.next());
+    assertEquals("a", cursor.getKey());
+
+    // a frozen object can be read with a cursor
+    json.freeze();
+    cursor = json.cursor();
+    assertTrue(cursor.next());
+    assertEquals("x", ((JsonString) cursor.getValue()).getString());
+    assertThrows(UnsupportedOperationException.class, () -> ((CJArray) json.get("c")).add(1));
+
+    // values reached through a cursor on a copy are not shared with the original
+    CJObject object = new CJObject();
+    object.put("a", new CJArray());
+    CJObject copy = object.copy();
+    cursor = copy.cursor();
+    assertTrue(cursor.next());
+    ((CJArray) cursor.getValue()).add(1);
+    assertEquals("{\"a\":[1]}", copy.toString());
+    assertEquals("{\"a\":[]}", object.toString());
+  }
+
+
   @Test
   public void descendingKeySet() {
     NavigableSet<String> set = json.descendingKeySet();
@@ -266,6 +433,21 @@ public class CJObjectTest {
   }
 
 
+  @Test
+  public void estimateRetainedSize() {
+    CJObject object = new CJObject();
+    long empty = object.estimateRetainedSize();
+    assertTrue(empty > 0);
+    object.put("a", "abc");
+    object.put("b", 1);
+    long full = object.estimateRetainedSize();
+    assertTrue(full > empty + CJString.create("abc").estimateRetainedSize());
+
+    object.freeze();
+    assertEquals(full, object.estimateRetainedSize());
+  }
+
+
   @Test
   public void firstKey() {
     assertEquals("\07", json.firstKey());
@@ -284,6 +466,56 @@ public class CJObjectTest {
   }
 
 
+  @Test
+  public void freeze() {
+    CJObject inner = new CJObject();
+    inner.put("x", 1);
+    CJObject object = new CJObject();
+    object.put("a", inner);
+    object.put("b", "c");
+    assertFalse(object.isFrozen());
+    assertSame(object, object.freeze());
+    assertTrue(object.isFrozen());
+    assertTrue(inner.isFrozen());
+    assertEquals(object.hashCode(), object.hashCode());
+    assertSame(object.toCanonicalString(), object.toCanonicalString());
+
+    assertThrows(UnsupportedOperationException.class, () -> object.put("d", 1));
+    assertThrows(UnsupportedOperationException.class, () -> object.getObject("a").remove("x"));
+    assertThrows(UnsupportedOperationException.class, () -> object.tailMap("b").clear());
+    assertThrows(UnsupportedOperationException.class, () -> object.entrySet().iterator().next().setValue(JsonValue.TRUE));
+    assertTrue(((CJObject) object.headMap("b")).isFrozen());
+
+    // a copy of a frozen object may be modified
+    CJObject copy = object.copy();
+    assertFalse(copy.isFrozen());
+    copy.getObject("a").put("y", 2);
+    copy.put("d", 3);
+    assertEquals("{\"a\":{\"x\":1,\"y\":2},\"b\":\"c\",\"d\":3}", copy.toString());
+    assertEquals("{\"a\":{\"x\":1},\"b\":\"c\"}", object.toString());
+  }
+
+
+  @Test
+  public void freezeWithView() {
+    CJObject object = new CJObject();
+    object.put("a", 1);
+    object.put("b", 2);
+    Map<String, JsonValue> tail = object.tailMap("b");
+    Set<String> keys = object.keySet();
+    object.freeze();
+    int hash = object.hashCode();
+    String text = object.toCanonicalString();
+
+    // views taken before freezing no longer modify the object
+    tail.put("c", CJNumber.create(3));
+    keys.remove("a");
+    assertEquals("{\"a\":1,\"b\":2}", object.toString());
+    assertEquals(hash, object.hashCode());
+    assertSame(text, object.toCanonicalString());
+  }
+
+
   @Test
   public void getJsonArray() {
     assertNotNull(json.getJsonArray("array"));
@@ -404,9 +636,9 @@ public class CJObjectTest {
       json.put("a1", "xyz");
       json.put("a2", "xyz");
       json.put("a3", "xyz");
-      json.put("b1", 1);
-      json.put("b2", 1);
-      json.put("b3", 1);
+      json.put("b1", 5000);
+      json.put("b2", 5000);
+      json.put("b3", 5000);
 
       IdentityHashMap<JsonValue, Boolean> counter = new IdentityHashMap<>();
       json.forEach((k, v) -> counter.put(v, true));
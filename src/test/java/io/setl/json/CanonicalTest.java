@@ -7,6 +7,7 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -20,6 +21,7 @@ import org.junit.jupiter.api.Test;
 import io.setl.json.exception.NotJsonException;
 import io.setl.json.primitive.CJNull;
 import io.setl.json.primitive.CJString;
+import io.setl.json.primitive.MemorySize;
 import io.setl.json.primitive.numbers.CJNumber;
 
 public class CanonicalTest {
@@ -75,6 +77,55 @@ public class CanonicalTest {
 
 
   @SuppressWarnings("unlikely-arg-type")
+  @Test
+  public void testDefaultEstimateRetainedSize() {
+    Canonical external = new Canonical() {
+      @Override
+      public Canonical copy() {
+        return this;
+      }
+
+
+      @Override
+      public Object getValue() {
+        return "external";
+      }
+
+
+      @Override
+      public <T> T getValue(Class<T> reqType, T defaultValue) {
+        return reqType.isInstance("external") ? reqType.cast("external") : defaultValue;
+      }
+
+
+      @Override
+      public <T> T getValueSafe(Class<T> reqType) {
+        return reqType.cast("external");
+      }
+
+
+      @Override
+      public ValueType getValueType() {
+        return ValueType.STRING;
+      }
+
+
+      @Override
+      public String toString() {
+        return "\"external\"";
+      }
+
+
+      @Override
+      public void writeTo(Appendable writer) throws IOException {
+        writer.append(toString());
+      }
+    };
+
+    assertEquals(MemorySize.align(MemorySize.OBJECT_HEADER + MemorySize.REFERENCE) + MemorySize.ofString("\"external\""), external.estimateRetainedSize());
+  }
+
+
   @Test
   public void testEquals() {
     Canonical canonical = Canonical.create("123");
@@ -0,0 +1,83 @@
+package io.setl.json;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.BitSet;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ColumnExtractorTest {
+
+  private static CJArray rows() {
+    CJArray array = new CJArray();
+    Object[] prices = {1.5, "NaN", "cheap", null};
+    for (int i = 0; i < 5; i++) {
+      CJObject object = new CJObject();
+      object.put("id", i);
+      if (i < prices.length) {
+        object.put("price", Canonical.create(prices[i]));
+      }
+      array.add(object);
+    }
+    array.add("not an object");
+    return array;
+  }
+
+
+  @Test
+  public void testDoubles() {
+    BitSet missing = new BitSet();
+    double[] column = new ColumnExtractor().doubles(rows(), "price", missing);
+    assertArrayEquals(new double[]{1.5, Double.NaN, 0, 0, 0, 0}, column);
+    assertEquals("{2, 3, 4, 5}", missing.toString());
+  }
+
+
+  @Test
+  public void testLongs() {
+    BitSet missing = new BitSet();
+    long[] column = new ColumnExtractor().longs(rows(), "id", missing);
+    assertArrayEquals(new long[]{0, 1, 2, 3, 4, 0}, column);
+    assertEquals("{5}", missing.toString());
+
+    column = new ColumnExtractor().longs(rows(), "price", null);
+    assertArrayEquals(new long[]{1, 0, 0, 0, 0, 0}, column);
+  }
+
+
+  @Test
+  public void testParallel() {
+    CJArray array = new CJArray();
+    for (int i = 0; i < 10000; i++) {
+      CJObject object = new CJObject();
+      if (i % 7 != 0) {
+        object.put("value", i);
+      }
+      if (i % 2 == 0) {
+        object.applyShape();
+      }
+      array.add(object);
+    }
+
+    BitSet missing = new BitSet();
+    long[] column = new ColumnExtractor(true).longs(array, "value", missing);
+    for (int i = 0; i < 10000; i++) {
+      assertEquals(i % 7 == 0, missing.get(i));
+      assertEquals((i % 7 == 0) ? 0 : i, column[i]);
+    }
+  }
+
+
+  @Test
+  public void testStrings() {
+    BitSet missing = new BitSet();
+    String[] column = new ColumnExtractor().strings(rows(), "price", missing);
+    assertArrayEquals(new String[]{null, "NaN", "cheap", null, null, null}, column);
+    assertEquals("{0, 3, 4, 5}", missing.toString());
+  }
+
+}
@@ -0,0 +1,81 @@
+package io.setl.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import jakarta.json.JsonConfig.KeyStrategy;
+import jakarta.json.JsonException;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.primitive.numbers.CJNumber;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class MemberListTest {
+
+  private static MemberList create(String... keys) {
+    MemberList members = new MemberList();
+    for (int i = 0; i < keys.length; i++) {
+      members.add(keys[i], CJNumber.create(i));
+    }
+    return members;
+  }
+
+
+  @Test
+  public void testPut() {
+    MemberList members = create("b", "a", "b");
+    members.put("b", CJNumber.create(7));
+    members.put("c", CJNumber.create(8));
+    members.put("c", CJNumber.create(9));
+    assertEquals(4, members.size());
+    assertEquals("{\"a\":1,\"b\":7,\"c\":9}", members.toObject(KeyStrategy.LAST).toString());
+
+    // the positions are still correct after a removal
+    members.remove("a");
+    members.put("b", CJNumber.create(10));
+    assertEquals(3, members.size());
+    assertEquals("{\"b\":10,\"c\":9}", members.toObject(KeyStrategy.LAST).toString());
+    assertThrows(NullPointerException.class, () -> members.put(null, CJNumber.create(0)));
+  }
+
+
+  @Test
+  public void testRemove() {
+    MemberList members = create("a", "b", "a", "c");
+    members.remove("a");
+    assertEquals(2, members.size());
+    assertEquals("{\"b\":1,\"c\":3}", members.toObject(KeyStrategy.LAST).toString());
+  }
+
+
+  @Test
+  public void testRepeatedKeys() {
+    MemberList members = create("b", "a", "b", "c", "b");
+    assertEquals("{\"a\":1,\"b\":4,\"c\":3}", members.toObject(KeyStrategy.LAST).toString());
+    assertEquals("{\"a\":1,\"b\":0,\"c\":3}", members.toObject(KeyStrategy.FIRST).toString());
+    assertThrows(JsonException.class, () -> members.toObject(KeyStrategy.NONE));
+  }
+
+
+  @Test
+  public void testShape() {
+    CJObject object = create("z", "y", "x").toObject(KeyStrategy.NONE);
+    assertNotNull(object.shapedStorage());
+    assertEquals("{\"x\":2,\"y\":1,\"z\":0}", object.toString());
+
+    // a new object can be created after more members are added
+    MemberList members = create("a", "b");
+    CJObject first = members.toObject(KeyStrategy.LAST);
+    members.add("c", CJNumber.create(2));
+    assertEquals(2, first.size());
+    assertEquals(3, members.toObject(KeyStrategy.LAST).size());
+
+    assertNull(new MemberList().toObject(KeyStrategy.LAST).shapedStorage());
+  }
+
+}
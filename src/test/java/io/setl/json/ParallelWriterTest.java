@@ -0,0 +1,110 @@
+package io.setl.json;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ParallelWriterTest {
+
+  private static Canonical random(Random random, int depth) {
+    int type = depth > 3 ? random.nextInt(4) : random.nextInt(6);
+    switch (type) {
+      case 0:
+        return Canonical.create(random.nextInt());
+      case 1:
+        return Canonical.create("s\u00e9\ud83d\ude00\n" + random.nextInt(100));
+      case 2:
+        return Canonical.create(random.nextBoolean());
+      case 3:
+        return Canonical.create(null);
+      case 4: {
+        CJArray array = new CJArray();
+        int size = random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+          array.add(random(random, depth + 1));
+        }
+        return array;
+      }
+      default: {
+        CJObject object = new CJObject();
+        int size = random.nextInt(12);
+        for (int i = 0; i < size; i++) {
+          object.put("k\u00fc" + random.nextInt(50), random(random, depth + 1));
+        }
+        return object;
+      }
+    }
+  }
+
+
+  @Test
+  public void testBadSettings() {
+    ParallelWriter writer = new ParallelWriter();
+    assertThrows(IllegalArgumentException.class, () -> writer.setChunkSize(0));
+    assertThrows(IllegalArgumentException.class, () -> writer.setWindow(0));
+  }
+
+
+  @Test
+  public void testDigest() {
+    Random random = new Random(0xd1);
+    ParallelWriter writer = new ParallelWriter();
+    writer.setChunkSize(2);
+    for (int i = 0; i < 20; i++) {
+      Canonical value = random(random, 0);
+      byte[] expected = io.setl.json.patch.ops.Test.digest("SHA-256", value);
+      assertArrayEquals(expected, io.setl.json.patch.ops.Test.digest("SHA-256", value, writer));
+    }
+  }
+
+
+  @Test
+  public void testMatchesSequential() throws IOException {
+    Random random = new Random(0x5eed);
+    for (int chunkSize = 1; chunkSize < 6; chunkSize++) {
+      ParallelWriter writer = new ParallelWriter();
+      writer.setChunkSize(chunkSize);
+      writer.setWindow(3);
+      for (int i = 0; i < 50; i++) {
+        Canonical value = random(random, 0);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        value.writeTo(out);
+        assertArrayEquals(out.toByteArray(), writer.toByteArray(value));
+      }
+    }
+  }
+
+
+  @Test
+  public void testPrimitive() {
+    ParallelWriter writer = new ParallelWriter();
+    assertEquals("null", new String(writer.toByteArray(null), UTF_8));
+    assertEquals("\"x\"", new String(writer.toByteArray(Canonical.create("x")), UTF_8));
+  }
+
+
+  @Test
+  public void testWideArray() {
+    CJArray array = new CJArray();
+    for (int i = 0; i < 10_000; i++) {
+      CJObject object = new CJObject();
+      object.put("id", i);
+      object.put("name", "item " + i);
+      array.add(object);
+    }
+    ParallelWriter writer = new ParallelWriter();
+    writer.setChunkSize(100);
+    assertEquals(array.toCanonicalString(), new String(writer.toByteArray(array), UTF_8));
+  }
+
+}
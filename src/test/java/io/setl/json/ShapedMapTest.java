@@ -0,0 +1,174 @@
+package io.setl.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map.Entry;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.primitive.CJString;
+import io.setl.json.primitive.numbers.CJNumber;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ShapedMapTest {
+
+  private static ShapedMap create() {
+    return new ShapedMap(
+        Shape.forKeys(new String[]{"b", "d", "f"}),
+        new Canonical[]{CJNumber.create(1), CJNumber.create(2), CJString.create("x")}
+    );
+  }
+
+
+  @Test
+  public void testConversion() {
+    ShapedMap map = create();
+    assertEquals(CJNumber.create(1), map.put("b", CJNumber.create(10)));
+    assertFalse(map.isTree());
+    assertNull(map.remove("z"));
+    assertFalse(map.isTree());
+
+    NavigableMap<String, Canonical> tail = map.tailMap("c", true);
+    assertTrue(map.isTree());
+    map.put("e", CJNumber.create(3));
+    assertEquals("[d, e, f]", tail.keySet().toString());
+    assertEquals("{b=10, d=2, e=3, f=\"x\"}", map.toString());
+  }
+
+
+  @Test
+  public void testEquals() {
+    TreeMap<String, Canonical> tree = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+    create().forEach(tree::put);
+    ShapedMap map = create();
+    assertEquals(tree, map);
+    assertEquals(map, tree);
+    assertEquals(tree.hashCode(), map.hashCode());
+    assertFalse(map.isTree());
+
+    tree.put("f", CJString.create("y"));
+    assertFalse(map.equals(tree));
+  }
+
+
+  @Test
+  public void testIteratorAfterConversion() {
+    // removing through the iterator converts the storage, and the iteration continues over the TreeMap
+    ShapedMap map = create();
+    Iterator<String> keys = map.keySet().iterator();
+    assertEquals("b", keys.next());
+    keys.remove();
+    assertTrue(map.isTree());
+    assertTrue(keys.hasNext());
+    assertEquals("d", keys.next());
+    keys.remove();
+    assertEquals("f", keys.next());
+    assertFalse(keys.hasNext());
+    assertEquals("{f=\"x\"}", map.toString());
+
+    // a change made elsewhere after conversion is seen by the iterator
+    map = create();
+    Iterator<Canonical> values = map.values().iterator();
+    assertEquals(CJNumber.create(1), values.next());
+    map.remove("d");
+    map.put("e", CJNumber.create(3));
+    assertEquals(CJNumber.create(3), values.next());
+    assertEquals(CJString.create("x"), values.next());
+    assertFalse(values.hasNext());
+  }
+
+
+  @Test
+  public void testNullValue() {
+    ShapedMap map = new ShapedMap(Shape.forKeys(new String[]{"b", "d"}), new Canonical[]{CJNumber.create(1), null});
+    TreeMap<String, Canonical> tree = new TreeMap<>(CJObject.CODE_POINT_ORDER);
+    tree.put("b", CJNumber.create(1));
+    tree.put("d", null);
+    assertEquals(tree.hashCode(), map.hashCode());
+    assertEquals(map, tree);
+    assertTrue(map.entrySet().contains(new SimpleEntry<>("d", null)));
+  }
+
+
+  @Test
+  public void testNavigation() {
+    ShapedMap map = create();
+    assertEquals("b", map.firstKey());
+    assertEquals("f", map.lastKey());
+    assertEquals("d", map.ceilingKey("c"));
+    assertEquals("d", map.ceilingKey("d"));
+    assertEquals("b", map.floorKey("c"));
+    assertEquals("d", map.floorKey("d"));
+    assertEquals("f", map.higherKey("d"));
+    assertNull(map.higherKey("f"));
+    assertEquals("b", map.lowerKey("d"));
+    assertNull(map.lowerKey("a"));
+    assertEquals(CJString.create("x"), map.get("f"));
+    assertNull(map.get("a"));
+    assertTrue(map.containsKey("d"));
+    assertFalse(map.isTree());
+  }
+
+
+  @Test
+  public void testViews() {
+    ShapedMap map = create();
+    Set<Entry<String, Canonical>> entries = map.entrySet();
+    Set<String> keys = map.keySet();
+    Collection<Canonical> values = map.values();
+    assertEquals("[b, d, f]", keys.toString());
+    assertEquals("[1, 2, \"x\"]", values.toString());
+    assertTrue(entries.contains(new SimpleEntry<>("d", CJNumber.create(2))));
+    assertTrue(values.contains(CJString.create("x")));
+
+    // setting a value writes through without converting
+    entries.iterator().next().setValue(CJNumber.create(10));
+    assertEquals(CJNumber.create(10), map.get("b"));
+    assertFalse(map.isTree());
+
+    // the views remain valid once converted
+    assertTrue(keys.remove("d"));
+    assertTrue(map.isTree());
+    assertEquals("[b, f]", keys.toString());
+    assertEquals("{b=10, f=\"x\"}", map.toString());
+    assertEquals(2, entries.size());
+  }
+
+
+  @Test
+  public void testShapeEviction() {
+    int limit = Integer.getInteger(Shape.class.getPackageName() + ".shapeRegistrySize", 4096);
+    Shape used = Shape.forKeys(new String[]{"used"});
+    for (int i = 0; i < 3 * limit; i++) {
+      assertNotNull(Shape.forKeys(new String[]{"once" + i}));
+      if (i % 100 == 0) {
+        // a shape which is in use survives every sweep of the registry
+        assertSame(used, Shape.forKeys(new String[]{"used"}));
+      }
+    }
+  }
+
+
+  @Test
+  public void testShapeIsShared() {
+    Shape shape = Shape.forKeys(new String[]{"b", "d", "f"});
+    assertSame(shape, Shape.forKeys(new String[]{new String("b"), "d", "f"}));
+    assertEquals(1, shape.indexOf("d"));
+    assertEquals(-1, shape.indexOf("e"));
+    assertNull(Shape.forKeys(new String[0]));
+  }
+
+}
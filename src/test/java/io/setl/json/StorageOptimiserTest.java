@@ -0,0 +1,135 @@
+package io.setl.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.primitive.CJString;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class StorageOptimiserTest {
+
+  private static CJObject record(int id) {
+    CJObject object = new CJObject();
+    object.put(new String("id"), id % 3);
+    object.put(new String("name"), new String("record"));
+    return object;
+  }
+
+
+  @Test
+  public void testConcurrent() {
+    CJObject concurrent = CJObject.createConcurrent();
+    concurrent.put("child", record(1));
+    concurrent.put("name", new String("record"));
+    CJArray array = new CJArray();
+    array.add(record(0));
+    array.add(concurrent);
+
+    new StorageOptimiser().optimise(array);
+    CJString name = (CJString) array.getObject(0).get("name");
+    assertSame(name, concurrent.get("name"));
+    assertSame(name, concurrent.getObject("child").get("name"));
+  }
+
+
+  @Test
+  public void testFreezing() {
+    CJArray array = new CJArray();
+    for (int i = 0; i < 9; i++) {
+      array.add(record(i));
+    }
+    String before = array.toString();
+
+    StorageOptimiser optimiser = new StorageOptimiser();
+    optimiser.setFreezing(true);
+    assertTrue(optimiser.isFreezing());
+    assertSame(array, optimiser.optimise(array));
+    assertTrue(array.isFrozen());
+    assertEquals(before, array.toString());
+
+    // only three distinct records
+    assertSame(array.get(0), array.get(3));
+    assertSame(array.get(1), array.get(7));
+    assertNotSame(array.get(0), array.get(1));
+    assertTrue(optimiser.getBytesSaved() > 0);
+  }
+
+
+  @Test
+  public void testFrozenSubtrees() {
+    CJArray array = new CJArray();
+    array.add(record(0).freeze());
+    array.add(record(3).freeze());
+    array.add(record(1));
+    array.add(record(4));
+
+    StorageOptimiser optimiser = new StorageOptimiser();
+    optimiser.optimise(array);
+    assertFalse(array.isFrozen());
+    assertSame(array.get(0), array.get(1));
+    assertNotSame(array.get(2), array.get(3));
+    assertSame(array.getObject(2).get("name"), array.getObject(3).get("name"));
+  }
+
+
+  @Test
+  public void testKeys() {
+    CJObject object1 = record(1);
+    CJObject object2 = record(2);
+    CJArray array = new CJArray();
+    array.add(object1);
+    array.add(object2);
+    assertNotSame(object1.firstKey(), object2.firstKey());
+
+    array.optimiseStorage();
+    assertSame(object1.firstKey(), object2.firstKey());
+    assertSame(object1.lastKey(), object2.lastKey());
+    assertEquals("[{\"id\":1,\"name\":\"record\"},{\"id\":2,\"name\":\"record\"}]", array.toString());
+  }
+
+
+  @Test
+  public void testParallel() {
+    CJArray array = new CJArray();
+    for (int i = 0; i < 1000; i++) {
+      array.add(record(i));
+    }
+    String before = array.toString();
+
+    StorageOptimiser optimiser = new StorageOptimiser(true);
+    optimiser.setFreezing(true);
+    optimiser.optimise(array);
+    assertEquals(before, array.toString());
+    for (int i = 3; i < 1000; i++) {
+      assertSame(array.get(i % 3), array.get(i));
+    }
+  }
+
+
+  @Test
+  public void testShared() {
+    CJObject original = record(1);
+    CJObject copy = original.copy();
+    CJArray originalArray = new CJArray();
+    originalArray.add(new String("record"));
+    CJArray copyArray = originalArray.copy();
+    CJArray array = new CJArray();
+    array.add(record(0));
+    array.add(original);
+    array.add(originalArray);
+
+    new StorageOptimiser().optimise(array);
+    // the copy still shares the storage, so it sees the replaced value
+    assertSame(array.getObject(0).get("name"), copy.get("name"));
+    assertEquals("{\"id\":1,\"name\":\"record\"}", copy.toString());
+    assertSame(copy.get("name"), copyArray.get(0));
+  }
+
+}
@@ -0,0 +1,60 @@
+package io.setl.json;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.io.ReaderFactory;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class TreeWriterTest {
+
+  private static final String JSON = "{\"a\":[1,2.5E0,{}],\"b\":{\"c\":null,\"d\":[[],[true,false]]},\"e\":\"x\\ny\"}";
+
+
+  @Test
+  public void testCanonical() {
+    Canonical value = (Canonical) new ReaderFactory().createReader(new StringReader(JSON)).readValue();
+    assertEquals(JSON, TreeWriter.toCanonicalString(value));
+    assertEquals(JSON, value.toCanonicalString());
+  }
+
+
+  @Test
+  public void testDeep() throws Exception {
+    int depth = 100_000;
+    CJArray root = new CJArray();
+    CJArray current = root;
+    for (int i = 1; i < depth; i++) {
+      CJArray next = new CJArray();
+      current.add(next);
+      current = next;
+    }
+    StringWriter writer = new StringWriter();
+    TreeWriter.writeTo(writer, root);
+    assertEquals("[".repeat(depth) + "]".repeat(depth), writer.toString());
+  }
+
+
+  @Test
+  public void testPretty() {
+    Canonical value = (Canonical) new ReaderFactory().createReader(new StringReader(JSON)).readValue();
+    assertEquals("{\n"
+        + "  \"a\": [ 1, 2.5E0, {} ],\n"
+        + "  \"b\": {\n"
+        + "    \"c\": null,\n"
+        + "    \"d\": [\n"
+        + "      [],\n"
+        + "      [ true, false ]\n"
+        + "    ]\n"
+        + "  },\n"
+        + "  \"e\": \"x\\ny\"\n"
+        + "}", TreeWriter.toPrettyString(value));
+  }
+
+}
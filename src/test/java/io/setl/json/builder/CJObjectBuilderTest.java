@@ -2,6 +2,9 @@ package io.setl.json.builder;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.math.BigDecimal;
 import java.math.BigInteger;
@@ -9,6 +12,8 @@ import jakarta.json.JsonValue;
 
 import org.junit.jupiter.api.Test;
 
+import io.setl.json.CJObject;
+
 /**
  * @author Simon Greatrix on 10/01/2020.
  */
@@ -40,6 +45,37 @@ public class CJObjectBuilderTest {
   }
 
 
+  @Test
+  public void addNullKey() {
+    assertThrows(NullPointerException.class, () -> builder.add(null, 1));
+  }
+
+
+  @Test
+  public void addRepeated() {
+    for (int i = 0; i < 100; i++) {
+      builder.add("A", i);
+    }
+    builder.add("B", true).add("A", "last");
+    test("{\"A\":\"last\",\"B\":true}");
+  }
+
+
+  @Test
+  public void buildIsCached() {
+    builder.add("A", 1);
+    CJObject first = builder.build();
+    assertSame(first, builder.build());
+    builder.add("B", 2);
+    CJObject second = builder.build();
+    assertNotSame(first, second);
+    assertEquals("{\"A\":1}", first.toString());
+    assertEquals("{\"A\":1,\"B\":2}", second.toString());
+    builder.remove("A");
+    assertNotSame(second, builder.build());
+  }
+
+
   @Test
   public void remove() {
     builder.add("A", true).remove("A");
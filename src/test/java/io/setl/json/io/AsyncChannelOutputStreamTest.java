@@ -0,0 +1,169 @@
+package io.setl.json.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousByteChannel;
+import java.nio.channels.CompletionHandler;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class AsyncChannelOutputStreamTest {
+
+  /** A channel which only completes writes when told to, and writes at most 3 bytes at a time. */
+  static class ManualChannel implements AsynchronousByteChannel {
+
+    final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    final List<Runnable> pending = new ArrayList<>();
+
+    boolean fail = false;
+
+    boolean isOpen = true;
+
+
+    @Override
+    public void close() {
+      isOpen = false;
+    }
+
+
+    @Override
+    public boolean isOpen() {
+      return isOpen;
+    }
+
+
+    @Override
+    public <A> void read(ByteBuffer dst, A attachment, CompletionHandler<Integer, ? super A> handler) {
+      throw new UnsupportedOperationException();
+    }
+
+
+    @Override
+    public Future<Integer> read(ByteBuffer dst) {
+      throw new UnsupportedOperationException();
+    }
+
+
+    void run() {
+      while (!pending.isEmpty()) {
+        pending.remove(0).run();
+      }
+    }
+
+
+    @Override
+    public <A> void write(ByteBuffer src, A attachment, CompletionHandler<Integer, ? super A> handler) {
+      pending.add(() -> {
+        if (fail) {
+          handler.failed(new IOException("test"), attachment);
+          return;
+        }
+        int count = Math.min(3, src.remaining());
+        for (int i = 0; i < count; i++) {
+          bytes.write(src.get());
+        }
+        handler.completed(count, attachment);
+      });
+    }
+
+
+    @Override
+    public Future<Integer> write(ByteBuffer src) {
+      throw new UnsupportedOperationException();
+    }
+
+  }
+
+
+  @Test
+  public void testBackPressure() throws Exception {
+    ManualChannel channel = new ManualChannel();
+    AsyncChannelOutputStream out = new AsyncChannelOutputStream(channel, 2, 4);
+    out.write(new byte[9], 0, 9);
+    assertFalse(out.isBackPressured());
+    out.write(new byte[4], 0, 4);
+    assertTrue(out.isBackPressured());
+    CompletableFuture<Void> writable = out.getWritable();
+    assertFalse(writable.isDone());
+
+    out.close();
+    assertTrue(channel.isOpen());
+    channel.run();
+    assertTrue(writable.isDone());
+    out.getCompletion().get(1, TimeUnit.SECONDS);
+    assertFalse(channel.isOpen());
+    assertEquals(13, channel.bytes.size());
+  }
+
+
+  @Test
+  public void testFailure() throws IOException {
+    ManualChannel channel = new ManualChannel();
+    channel.fail = true;
+    AsyncChannelOutputStream out = new AsyncChannelOutputStream(channel, 2, 4);
+    out.close();
+    channel.run();
+    assertTrue(out.getCompletion().isDone());
+
+    AsyncChannelOutputStream out2 = new AsyncChannelOutputStream(channel, 2, 4);
+    out2.write(new byte[5], 0, 5);
+    channel.run();
+    ExecutionException e = assertThrows(ExecutionException.class, () -> out2.getCompletion().get());
+    assertEquals("test", e.getCause().getMessage());
+    assertThrows(IOException.class, () -> out2.write(new byte[10], 0, 10));
+    assertThrows(IOException.class, () -> out2.write(1));
+    assertThrows(IOException.class, out2::flush);
+  }
+
+
+  @Test
+  public void testQueueLimit() throws Exception {
+    ManualChannel channel = new ManualChannel();
+    AsyncChannelOutputStream out = new AsyncChannelOutputStream(channel, 2, 4, 3);
+    assertThrows(IllegalArgumentException.class, () -> new AsyncChannelOutputStream(channel, 2, 4, 1));
+
+    // a writer which ignores back-pressure is stopped once the queue is full
+    out.write(new byte[16], 0, 16);
+    assertTrue(out.isBackPressured());
+    assertThrows(IOException.class, () -> out.write(new byte[4], 0, 4));
+
+    channel.run();
+    assertFalse(out.isBackPressured());
+    out.write(new byte[4], 0, 4);
+    out.close();
+    channel.run();
+    out.getCompletion().get(1, TimeUnit.SECONDS);
+    assertEquals(20, channel.bytes.size());
+  }
+
+
+  @Test
+  public void testGenerator() throws Exception {
+    ManualChannel channel = new ManualChannel();
+    AsyncChannelOutputStream out = new AsyncChannelOutputStream(channel, 2, 16);
+    Generator<?> generator = new GeneratorFactory(Map.of()).createGenerator(out);
+    generator.writeStartObject().write("b", "\u20ac").write("a", 1).writeEnd().close();
+    channel.run();
+    out.getCompletion().get(1, TimeUnit.SECONDS);
+    assertEquals("{\"a\":1,\"b\":\"\u20ac\"}", channel.bytes.toString(UTF_8));
+  }
+
+}
@@ -0,0 +1,83 @@
+package io.setl.json.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ChannelOutputStreamTest {
+
+  @Test
+  public void testClosed() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    WritableByteChannel channel = Channels.newChannel(bytes);
+    ChannelOutputStream out = new ChannelOutputStream(channel, 2, 4);
+    out.write(new byte[10], 0, 10);
+    out.close();
+    assertEquals(10, bytes.size());
+    assertFalse(channel.isOpen());
+    assertThrows(IOException.class, out::flush);
+
+    // a write which would fit in a buffer is still refused
+    assertThrows(IOException.class, () -> out.write(1));
+    assertThrows(IOException.class, () -> out.write(new byte[1], 0, 1));
+  }
+
+
+  @Test
+  public void testGathering() throws IOException {
+    Path path = Files.createTempFile("channel", ".json");
+    try {
+      StringBuilder expected = new StringBuilder("[");
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+        Generator<?> generator = new GeneratorFactory(Map.of()).createGenerator(channel);
+        generator.writeStartArray();
+        for (int i = 0; i < 5000; i++) {
+          generator.write("\u00e9l\u00e9ment " + i);
+          expected.append(i == 0 ? "" : ",").append("\"\u00e9l\u00e9ment ").append(i).append('"');
+        }
+        generator.writeEnd();
+        generator.close();
+      }
+      expected.append(']');
+      assertEquals(expected.toString(), Files.readString(path, UTF_8));
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+
+  @Test
+  public void testSimpleChannel() throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ChannelOutputStream out = new ChannelOutputStream(Channels.newChannel(bytes), 3, 5);
+    byte[] data = new byte[47];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) i;
+    }
+    out.write(data, 0, 20);
+    out.write(20);
+    out.write(data, 21, 26);
+    out.flush();
+    assertEquals(47, bytes.size());
+    for (int i = 0; i < data.length; i++) {
+      assertEquals(i, bytes.toByteArray()[i]);
+    }
+  }
+
+}
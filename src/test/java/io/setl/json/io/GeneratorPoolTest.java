@@ -0,0 +1,106 @@
+package io.setl.json.io;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Map;
+import jakarta.json.stream.JsonGenerationException;
+import jakarta.json.stream.JsonGenerator;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class GeneratorPoolTest {
+
+  @Test
+  public void testDoubleClose() {
+    GeneratorPool pool = new GeneratorPool(new GeneratorFactory(Map.of()), 2);
+    ByteArrayOutputStream first = new ByteArrayOutputStream();
+    PooledGenerator generator = pool.acquire(first);
+    generator.write(1).close();
+
+    // a second close after the resources have been reacquired does not affect the new document
+    ByteArrayOutputStream second = new ByteArrayOutputStream();
+    PooledGenerator other = pool.acquire(second);
+    other.writeStartArray().write(2);
+    generator.close();
+    assertEquals(0, pool.getIdleCount());
+    other.write(3).writeEnd().close();
+    assertEquals("1", first.toString(UTF_8));
+    assertEquals("[2,3]", second.toString(UTF_8));
+
+    // the resources were only returned to the pool once
+    generator.close();
+    assertEquals(1, pool.getIdleCount());
+  }
+
+
+  @Test
+  public void testFailure() {
+    GeneratorPool pool = new GeneratorPool(new GeneratorFactory(Map.of()), 1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PooledGenerator generator = pool.acquire(out);
+    generator.writeStartArray();
+    assertThrows(JsonGenerationException.class, generator::close);
+
+    // the resources are still reusable
+    assertEquals(1, pool.getIdleCount());
+    out.reset();
+    PooledGenerator second = pool.acquire(out);
+    assertEquals(0, pool.getIdleCount());
+    second.writeStartArray().write(1).writeEnd().close();
+    assertEquals("[1]", out.toString(UTF_8));
+  }
+
+
+  @Test
+  public void testFlush() {
+    GeneratorPool pool = new GeneratorPool(new GeneratorFactory(Map.of()));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PooledGenerator generator = pool.acquire(out);
+    generator.writeStartArray().write("a");
+    generator.flush();
+    assertEquals("[\"a\"", out.toString(UTF_8));
+    generator.write(true).writeEnd().close();
+    assertEquals("[\"a\",true]", out.toString(UTF_8));
+  }
+
+
+  @Test
+  public void testPretty() {
+    GeneratorPool pool = new GeneratorPool(new GeneratorFactory(Map.of(JsonGenerator.PRETTY_PRINTING, true)));
+    for (int i = 0; i < 3; i++) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      pool.acquire(out).writeStartObject().write("b", i).write("a", "\u20ac").writeEnd().close();
+      assertEquals("{ \"a\": \"\u20ac\", \"b\": " + i + " }", out.toString(UTF_8));
+    }
+  }
+
+
+  @Test
+  public void testReuse() {
+    GeneratorPool pool = new GeneratorPool(new GeneratorFactory(Map.of()), 1);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PooledGenerator generator = pool.acquire(out);
+    PooledGenerator other = pool.acquire(new ByteArrayOutputStream());
+    assertNotSame(generator, other);
+
+    generator.writeStartObject().write("b", 2).write("a", 1).writeEnd().close();
+    assertEquals("{\"a\":1,\"b\":2}", out.toString(UTF_8));
+    other.close();
+    assertEquals(1, pool.getIdleCount());
+
+    out.reset();
+    PooledGenerator again = pool.acquire(out);
+    assertNotSame(generator, again);
+    assertEquals(0, pool.getIdleCount());
+    again.write("x".repeat(100_000)).close();
+    assertEquals(100_002, out.size());
+  }
+
+}
@@ -54,6 +54,39 @@ public class MutableLocationTest {
   }
 
 
+  @Test
+  public void testBlockUpdate() {
+    char[] chars = "xab\r\n\na\tz".toCharArray();
+    MutableLocation block = new MutableLocation();
+    block.update(chars, 1, chars.length - 1);
+    MutableLocation single = new MutableLocation();
+    for (int i = 1; i < chars.length - 1; i++) {
+      single.update(chars[i]);
+    }
+    assertEquals(single.toString(), block.toString());
+    assertEquals(3, block.getLineNumber());
+    assertEquals(9, block.getColumnNumber());
+    assertEquals(7, block.getStreamOffset());
+  }
+
+
+  @Test
+  public void testBlockUpdateSplit() {
+    // every way of splitting the text into two blocks, including a CR-LF pair split across blocks
+    char[] chars = "ab\r\ncd\r\re\u0001\n\tf\n\r\ng\th".toCharArray();
+    MutableLocation single = new MutableLocation();
+    for (char ch : chars) {
+      single.update(ch);
+    }
+    for (int split = 0; split <= chars.length; split++) {
+      MutableLocation block = new MutableLocation();
+      block.update(chars, 0, split);
+      block.update(chars, split, chars.length);
+      assertEquals(single.toString(), block.toString(), "Split at " + split);
+    }
+  }
+
+
   @Test
   public void testSetters() {
     MutableLocation l = new MutableLocation();
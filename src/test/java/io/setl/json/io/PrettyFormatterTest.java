@@ -49,6 +49,30 @@ public class PrettyFormatterTest {
   }
 
 
+  @Test
+  public void writeDeepIndent() {
+    // 100 levels of indentation needs more than the cached indent string
+    TrustedGenerator deep = new TrustedGenerator(new PrettyFormatter(writer, 0));
+    for (int i = 0; i < 100; i++) {
+      deep.writeStartArray().write(i);
+    }
+    for (int i = 0; i < 100; i++) {
+      deep.writeEnd();
+    }
+    deep.close();
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      expected.append("[\n").append("  ".repeat(i + 1)).append(i).append(",\n").append("  ".repeat(i + 1));
+    }
+    expected.setLength(expected.length() - 2 * 100 - 2);
+    for (int i = 99; i >= 0; i--) {
+      expected.append('\n').append("  ".repeat(i)).append(']');
+    }
+    assertEquals(expected.toString(), writer.toString());
+  }
+
+
   @Test
   public void writeEmptyArray() {
     generator.write(JsonValue.EMPTY_JSON_ARRAY);
@@ -11,6 +11,7 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.List;
 import jakarta.json.JsonValue;
 import jakarta.json.stream.JsonGenerationException;
 
@@ -19,6 +20,8 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.Mockito;
 
+import io.setl.json.CJArray;
+import io.setl.json.CJObject;
 import io.setl.json.exception.JsonIOException;
 
 /**
@@ -206,6 +209,53 @@ public class SafeGeneratorTest {
   }
 
 
+  @Test
+  public void testStreamedArray() {
+    CJObject payload = new CJObject();
+    payload.put("z", 1);
+    payload.put("y", new CJArray(List.of(2, 3)));
+    generator.writeStartArray()
+        .write(payload)
+        .writeStartArray()
+        .write(4);
+    // The elements of the arrays are available before the arrays are complete
+    assertEquals("[{\"y\":[2,3],\"z\":1},[4", writer.toString());
+    generator.writeStartObject()
+        .write("b", 2)
+        .write("a", payload)
+        .writeEnd();
+    assertEquals("[{\"y\":[2,3],\"z\":1},[4,{\"a\":{\"y\":[2,3],\"z\":1},\"b\":2}", writer.toString());
+    generator.writeEnd().writeEnd().close();
+    assertEquals("[{\"y\":[2,3],\"z\":1},[4,{\"a\":{\"y\":[2,3],\"z\":1},\"b\":2}]]", writer.toString());
+    jge(() -> generator.write(1), "Cannot write multiple values to root context");
+  }
+
+
+  @Test
+  public void testStreamedArrayError() {
+    generator.writeStartArray()
+        .write(1)
+        .writeStartArray()
+        .write(2);
+    jge(() -> generator.write("a", 3), "Cannot write key in array context");
+
+    // The output already holds the start of the document
+    assertEquals("[1,[2", writer.toString());
+    jge(() -> generator.close(), "Close attempted with unfinished structures");
+    assertEquals("[1,[2", writer.toString());
+  }
+
+
+  @Test
+  public void testStreamedArrayErrorCloses() throws IOException {
+    Writer writer = Mockito.mock(Writer.class);
+    generator = new SafeGenerator(new NoOpFormatter(writer));
+    generator.writeStartArray().writeStartObject();
+    jge(() -> generator.close(), "Close attempted with unfinished structures");
+    verify(writer).close();
+  }
+
+
   @Test
   public void testWriteObject1() {
     generator.writeStartObject()
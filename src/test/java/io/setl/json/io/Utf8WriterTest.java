@@ -84,6 +84,17 @@ public class Utf8WriterTest {
   }
 
 
+  @Test
+  public void testAppendUtf8() throws IOException {
+    writer.write("A\u00e9");
+    writer.appendUtf8("\u20ac\ud83d\ude00".getBytes(StandardCharsets.UTF_8));
+    verifyUtf8("A\u00e9\u20ac\ud83d\ude00".toCharArray());
+
+    appendable.append(Character.toChars(0x14444)[0]);
+    ioe(() -> appendable.appendUtf8(new byte[]{'a'}), "Isolated high surrogate");
+  }
+
+
   @Test
   public void testBadSurrogates1() throws IOException {
     char[] pair = Character.toChars(0x14444);
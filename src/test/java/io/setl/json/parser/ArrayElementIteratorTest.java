@@ -0,0 +1,149 @@
+package io.setl.json.parser;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.Canonical;
+import io.setl.json.CanonicalJsonProvider;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ArrayElementIteratorTest {
+
+  /** A reader which records whether it has been closed. */
+  private static class TrackedReader extends StringReader {
+
+    boolean isClosed = false;
+
+
+    TrackedReader(String text) {
+      super(text);
+    }
+
+
+    @Override
+    public void close() {
+      isClosed = true;
+      super.close();
+    }
+
+  }
+
+
+
+  @Test
+  public void testEmpty() {
+    ArrayElementIterator iterator = new ArrayElementIterator(new StringReader(" [ ] "));
+    assertFalse(iterator.hasNext());
+  }
+
+
+  @Test
+  public void testCloseFailureIsSuppressed() {
+    StringReader reader = new StringReader("[1,") {
+      @Override
+      public void close() {
+        throw new IllegalStateException("close failed");
+      }
+    };
+    ArrayElementIterator iterator = new ArrayElementIterator(reader);
+    iterator.next();
+    JsonParsingException e = assertThrows(JsonParsingException.class, iterator::hasNext);
+    assertEquals(1, e.getSuppressed().length);
+    assertEquals("close failed", e.getSuppressed()[0].getMessage());
+  }
+
+
+  @Test
+  public void testFactory() {
+    for (boolean lazy : new boolean[]{false, true}) {
+      ParserFactory factory = new ParserFactory(Map.of(ParserFactory.LAZY_LOCATION, lazy, ParserFactory.REQUIRE_SINGLE_ROOT, false));
+      ArrayElementIterator iterator = factory.createArrayIterator(new StringReader("[\n1,\n2,\nx]"));
+      assertEquals(1, iterator.next().getValue());
+      assertEquals(2, iterator.next().getValue());
+      JsonParsingException e = assertThrows(JsonParsingException.class, iterator::hasNext);
+      assertEquals(4, e.getLocation().getLineNumber());
+
+      // the iterator always requires the array to be the only root
+      iterator = factory.createArrayIterator(new StringReader("[1] [2]"));
+      iterator.next();
+      assertThrows(JsonParsingException.class, iterator::hasNext);
+    }
+  }
+
+
+  @Test
+  public void testInputStream() {
+    byte[] bytes = "[1,{\"a\":[true]},\"x\",null]".getBytes(UTF_8);
+    List<String> values = new CanonicalJsonProvider().createArrayStream(new ByteArrayInputStream(bytes))
+        .map(Canonical::toString)
+        .collect(Collectors.toList());
+    assertEquals(List.of("1", "{\"a\":[true]}", "\"x\"", "null"), values);
+  }
+
+
+  @Test
+  public void testNotArray() {
+    ArrayElementIterator iterator = new ArrayElementIterator(new StringReader("{}"));
+    assertThrows(JsonParsingException.class, iterator::hasNext);
+  }
+
+
+  @Test
+  public void testPath() throws IOException {
+    Path path = Files.createTempFile("array", ".json");
+    try {
+      Files.writeString(path, "[[1],[2],[3]]");
+      int total;
+      try (Stream<Canonical> stream = new CanonicalJsonProvider().createArrayStream(path)) {
+        total = stream.mapToInt(c -> c.asJsonArray().getInt(0)).sum();
+      }
+      assertEquals(6, total);
+    } finally {
+      Files.delete(path);
+    }
+  }
+
+
+  @Test
+  public void testTrailingContent() {
+    TrackedReader reader = new TrackedReader("[1] 2");
+    ArrayElementIterator iterator = new ArrayElementIterator(reader);
+    assertTrue(iterator.hasNext());
+    assertEquals(1, iterator.next().getValue());
+    assertThrows(JsonParsingException.class, iterator::hasNext);
+    assertTrue(reader.isClosed);
+    assertFalse(iterator.hasNext());
+  }
+
+
+  @Test
+  public void testUnterminated() {
+    TrackedReader reader = new TrackedReader("[1,2");
+    ArrayElementIterator iterator = new ArrayElementIterator(reader);
+    iterator.next();
+    iterator.next();
+    assertFalse(reader.isClosed);
+    assertThrows(JsonParsingException.class, iterator::hasNext);
+    assertTrue(reader.isClosed);
+    assertFalse(iterator.hasNext());
+  }
+
+}
@@ -0,0 +1,205 @@
+package io.setl.json.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import jakarta.json.stream.JsonLocation;
+import jakarta.json.stream.JsonParsingException;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.Canonical;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class ParallelParserTest {
+
+  private static String data(int count) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < count; i++) {
+      builder.append("{\"id\":").append(i).append(",\"text\":\"a \\\"}]\\\\ ").append(i).append("\",\"list\":[").append(i).append(",[]]}\n");
+    }
+    return builder.toString();
+  }
+
+
+  private static List<String> sequential(String data) {
+    Parser parser = new Parser(new StringReader(data));
+    parser.setRequireSingleRoot(false);
+    return parser.getValueStream().map(Object::toString).collect(Collectors.toList());
+  }
+
+
+  @Test
+  public void testConcatenated() {
+    String data = "{\"a\":1}[1,2]\"x\"  true\r\n-1.5e3 null\t{}\"y\"";
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(2);
+    List<String> actual = parser.stream().map(Canonical::toString).collect(Collectors.toList());
+    assertEquals(sequential(data), actual);
+  }
+
+
+  @Test
+  public void testEmpty() {
+    ParallelParser parser = new ParallelParser(new StringReader(" \n "));
+    assertEquals(0, parser.stream().count());
+  }
+
+
+  @Test
+  public void testError() {
+    String data = "[1]\n[2]\n  {\"a\":\n  tru}\n[3]";
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(1);
+    Iterator<Canonical> iterator = parser.iterator();
+    assertEquals("[1]", iterator.next().toString());
+    assertEquals("[2]", iterator.next().toString());
+    JsonParsingException e = assertThrows(JsonParsingException.class, iterator::next);
+    JsonLocation location = e.getLocation();
+    assertEquals(4, location.getLineNumber());
+
+    Parser single = new Parser(new StringReader(data));
+    single.setRequireSingleRoot(false);
+    JsonParsingException expected = assertThrows(JsonParsingException.class, () -> single.getValueStream().count());
+    assertEquals(expected.getLocation().getLineNumber(), location.getLineNumber());
+    assertEquals(expected.getLocation().getStreamOffset(), location.getStreamOffset());
+  }
+
+
+  @Test
+  public void testErrorLocation() {
+    // carriage returns, CR-LF pairs and tabs, both before and within the failing value
+    String data = "[1]\r[2]\r\n\t{\"a\":\t[1,\r\n\t\ttru]}\n[3]";
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(1);
+    JsonParsingException e = assertThrows(JsonParsingException.class, () -> parser.stream().count());
+
+    Parser single = new Parser(new StringReader(data));
+    single.setRequireSingleRoot(false);
+    JsonParsingException expected = assertThrows(JsonParsingException.class, () -> single.getValueStream().count());
+    assertEquals(expected.getLocation().getLineNumber(), e.getLocation().getLineNumber());
+    assertEquals(expected.getLocation().getColumnNumber(), e.getLocation().getColumnNumber());
+    assertEquals(expected.getLocation().getStreamOffset(), e.getLocation().getStreamOffset());
+  }
+
+
+  @Test
+  public void testOnce() {
+    ParallelParser parser = new ParallelParser(new StringReader("1 2"));
+    parser.iterator();
+    assertThrows(IllegalStateException.class, parser::stream);
+    assertThrows(IllegalStateException.class, () -> parser.setOrdered(false));
+  }
+
+
+  @Test
+  public void testOrdered() {
+    String data = data(5000);
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(37);
+    List<String> actual;
+    try (Stream<Canonical> stream = parser.stream()) {
+      actual = stream.map(Canonical::toString).collect(Collectors.toList());
+    }
+    assertEquals(sequential(data), actual);
+  }
+
+
+  @Test
+  public void testPublisher() throws Exception {
+    String data = data(1000);
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(10);
+    List<String> actual = new ArrayList<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    parser.publisher().subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onComplete() {
+        done.complete(null);
+      }
+
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.completeExceptionally(throwable);
+      }
+
+
+      @Override
+      public void onNext(Canonical item) {
+        actual.add(item.toString());
+      }
+
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+      }
+    });
+    done.get(30, TimeUnit.SECONDS);
+    assertEquals(sequential(data), actual);
+  }
+
+
+  @Test
+  public void testPublisherSecondSubscriber() throws Exception {
+    ParallelParser parser = new ParallelParser(new StringReader("1 2"));
+    parser.iterator();
+    CompletableFuture<Flow.Subscription> subscribed = new CompletableFuture<>();
+    CompletableFuture<Void> done = new CompletableFuture<>();
+    parser.publisher().subscribe(new Flow.Subscriber<>() {
+      @Override
+      public void onComplete() {
+        done.complete(null);
+      }
+
+
+      @Override
+      public void onError(Throwable throwable) {
+        done.completeExceptionally(throwable);
+      }
+
+
+      @Override
+      public void onNext(Canonical item) {
+        // do nothing
+      }
+
+
+      @Override
+      public void onSubscribe(Flow.Subscription subscription) {
+        subscribed.complete(subscription);
+      }
+    });
+    assertTrue(subscribed.isDone());
+    ExecutionException e = assertThrows(ExecutionException.class, () -> done.get(30, TimeUnit.SECONDS));
+    assertTrue(e.getCause() instanceof IllegalStateException);
+  }
+
+
+  @Test
+  public void testUnordered() {
+    String data = data(5000);
+    ParallelParser parser = new ParallelParser(new StringReader(data));
+    parser.setBatchSize(10);
+    parser.setOrdered(false);
+    List<String> actual = parser.stream().map(Canonical::toString).sorted().collect(Collectors.toList());
+    List<String> expected = sequential(data);
+    expected.sort(null);
+    assertEquals(expected, actual);
+  }
+
+}
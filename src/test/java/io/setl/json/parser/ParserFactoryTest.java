@@ -41,8 +41,9 @@ public class ParserFactoryTest {
   public void getConfigInUse1() {
     ParserFactory factory = new ParserFactory(null);
     Map<String, ?> map = factory.getConfigInUse();
-    assertEquals(1, map.size());
+    assertEquals(2, map.size());
     assertEquals(Boolean.TRUE, map.get(ParserFactory.REQUIRE_SINGLE_ROOT));
+    assertEquals(Boolean.FALSE, map.get(ParserFactory.LAZY_LOCATION));
   }
 
 
@@ -50,7 +51,7 @@ public class ParserFactoryTest {
   public void getConfigInUse2() {
     ParserFactory factory = new ParserFactory(Map.of(ParserFactory.REQUIRE_SINGLE_ROOT, "false"));
     Map<String, ?> map = factory.getConfigInUse();
-    assertEquals(1, map.size());
+    assertEquals(2, map.size());
     assertEquals(Boolean.FALSE, map.get(ParserFactory.REQUIRE_SINGLE_ROOT));
   }
 
@@ -59,11 +60,20 @@ public class ParserFactoryTest {
   public void getConfigInUse3() {
     ParserFactory factory = new ParserFactory(Map.of(ParserFactory.REQUIRE_SINGLE_ROOT, false));
     Map<String, ?> map = factory.getConfigInUse();
-    assertEquals(1, map.size());
+    assertEquals(2, map.size());
     assertEquals(Boolean.FALSE, map.get(ParserFactory.REQUIRE_SINGLE_ROOT));
   }
 
 
+  @Test
+  public void getConfigInUse4() {
+    ParserFactory factory = new ParserFactory(Map.of(ParserFactory.LAZY_LOCATION, "true"));
+    Map<String, ?> map = factory.getConfigInUse();
+    assertEquals(2, map.size());
+    assertEquals(Boolean.TRUE, map.get(ParserFactory.LAZY_LOCATION));
+  }
+
+
   @Test
   public void testCreateParser() {
     JsonParser parser = new ParserFactory(Map.of(ParserFactory.REQUIRE_SINGLE_ROOT, false)).createParser(
@@ -3,6 +3,7 @@ package io.setl.json.parser;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.io.StringReader;
 import java.math.BigDecimal;
@@ -10,12 +11,15 @@ import java.util.Iterator;
 import java.util.Map.Entry;
 import java.util.stream.Stream;
 import jakarta.json.JsonValue;
+import jakarta.json.stream.JsonLocation;
 import jakarta.json.stream.JsonParser.Event;
+import jakarta.json.stream.JsonParsingException;
 
 import org.junit.jupiter.api.Test;
 
 import io.setl.json.CJArray;
 import io.setl.json.CJObject;
+import io.setl.json.Canonical;
 import io.setl.json.primitive.CJTrue;
 import io.setl.json.primitive.numbers.CJNumber;
 
@@ -38,6 +42,36 @@ public class ParserTest {
   }
 
 
+  @Test
+  public void testDeepNesting() throws InterruptedException {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      builder.append("[{\"a\":");
+    }
+    builder.append("1");
+    for (int i = 0; i < 500; i++) {
+      builder.append("}]");
+    }
+    String data = builder.toString();
+
+    // A small stack is sufficient, as structures are not built recursively
+    Canonical[] result = new Canonical[1];
+    Thread thread = new Thread(null, () -> {
+      Parser parser = create(data);
+      parser.next();
+      result[0] = parser.getValue();
+    }, "small-stack", 32 * 1024);
+    thread.start();
+    thread.join();
+    assertEquals(data, result[0].toString());
+
+    Parser parser = create("[" + data + "]");
+    parser.next();
+    JsonParsingException e = assertThrows(JsonParsingException.class, parser::getValue);
+    assertEquals("Json structure has exceeded the configured maximum nesting depth of 1000", e.getMessage());
+  }
+
+
   @Test
   public void testGetArray() {
     Parser parser = create("[0,1,2,3]");
@@ -85,6 +119,32 @@ public class ParserTest {
   }
 
 
+  @Test
+  public void testLazyLocation() {
+    StringBuilder builder = new StringBuilder("[\n");
+    for (int i = 0; i < 1000; i++) {
+      builder.append("  ").append(i).append(",\r\n");
+    }
+    builder.append("  \ttrue,\n  nul ]");
+    String data = builder.toString();
+
+    Parser eager = create(data);
+    Parser lazy = create(data);
+    lazy.setLazyLocation(true);
+    for (int i = 0; i < 1002; i++) {
+      assertEquals(eager.next(), lazy.next());
+      assertEquals(eager.getLocation().toString(), lazy.getLocation().toString());
+    }
+
+    // the error is well past the first block of input, and its line is still known
+    JsonLocation eagerLocation = assertThrows(JsonParsingException.class, eager::next).getLocation();
+    JsonLocation lazyLocation = assertThrows(JsonParsingException.class, lazy::next).getLocation();
+    assertTrue(lazyLocation.getStreamOffset() > 4096);
+    assertEquals(1003, lazyLocation.getLineNumber());
+    assertEquals(eagerLocation.toString(), lazyLocation.toString());
+  }
+
+
   @Test
   public void testObject() {
     Parser parser = create("{\"a\":1,\"b\":2}");
@@ -109,6 +169,26 @@ public class ParserTest {
   }
 
 
+  @Test
+  public void testReset() {
+    Parser parser = create("{\"a\":[1,\"x\"");
+    assertEquals(Event.START_OBJECT, parser.next());
+    assertEquals(Event.KEY_NAME, parser.next());
+
+    parser.reset(new StringReader("[\"b\",2.5]"));
+    assertEquals(1, parser.getLocation().getLineNumber());
+    assertEquals(0, parser.getLocation().getStreamOffset());
+    assertEquals(Event.START_ARRAY, parser.next());
+    assertEquals("[\"b\",2.5E0]", parser.getArray().toString());
+    assertFalse(parser.hasNext());
+
+    parser.reset(new StringReader(" \"c\" "));
+    assertEquals(Event.VALUE_STRING, parser.next());
+    assertEquals("c", parser.getString());
+    assertFalse(parser.hasNext());
+  }
+
+
   @Test
   public void testSkipArray() {
     Parser parser = create("[1,true,3,4] 12");
@@ -0,0 +1,148 @@
+package io.setl.json.primitive;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.io.Utf8Appendable;
+import io.setl.json.io.Utf8Writer;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class CJStringTest {
+
+  @Test
+  public void testCanonicalUtf8() throws IOException {
+    CJString string = CJString.create("caf\u00e9 \"\ud83d\ude00\"\n");
+    byte[] bytes = string.getCanonicalUtf8();
+    assertEquals(string.toString(), new String(bytes, UTF_8));
+    assertSame(bytes, string.getCanonicalUtf8());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    string.writeTo(out);
+    assertArrayEquals(bytes, out.toByteArray());
+
+    out.reset();
+    Utf8Writer writer = new Utf8Writer(out);
+    CJString.format(writer, "key\u20ac");
+    writer.flush();
+    assertEquals("\"key\u20ac\"", out.toString(UTF_8));
+
+    String longText = "x".repeat(1000) + "\t";
+    CJString longString = CJString.create(longText);
+    assertNotSame(longString.getCanonicalUtf8(), longString.getCanonicalUtf8());
+    out.reset();
+    longString.writeTo(out);
+    assertEquals(CJString.format(longText), out.toString(UTF_8));
+  }
+
+
+  @Test
+  public void testCompact() throws IOException {
+    String text = "QUJD/+=".repeat(50);
+    CJString compact = CJString.createCompact(new StringBuilder(text));
+    CJString plain = CJString.create(text);
+    long size = compact.estimateRetainedSize();
+    assertTrue(size < plain.estimateRetainedSize());
+    assertEquals(text, compact.getString());
+    // the decoded value is not retained
+    assertEquals(size, compact.estimateRetainedSize());
+    assertEquals(plain, compact);
+    assertEquals(compact, plain);
+    assertEquals(compact, CJString.createCompact(text));
+    assertEquals(plain.hashCode(), compact.hashCode());
+    assertEquals(plain.toString(), compact.toString());
+    assertFalse(compact.isEscapeRequired());
+    assertSame(compact.getCanonicalUtf8(), compact.getCanonicalUtf8());
+
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    compact.writeTo(out);
+    assertEquals(plain.toString(), out.toString(UTF_8));
+    StringWriter writer = new StringWriter();
+    compact.writeTo(writer);
+    assertEquals(plain.toString(), writer.toString());
+
+    // strings which are short, or need escaping, or are not ASCII are not held compactly
+    assertSame(CJString.create("short"), CJString.createCompact("short"));
+    String escaped = text + "\n";
+    assertEquals(CJString.format(escaped), CJString.createCompact(escaped).toString());
+    String accented = text + "\u00e9";
+    assertEquals(accented, CJString.createCompact(accented).getString());
+    CJString notCompact = CJString.createCompact(accented);
+    assertNotSame(notCompact.getCanonicalUtf8(), notCompact.getCanonicalUtf8());
+  }
+
+
+  @Test
+  public void testEscapeRequired() {
+    assertFalse(CJString.create("plain text \u00e9 \ud83d\ude00").isEscapeRequired());
+    assertTrue(CJString.create("tab\there").isEscapeRequired());
+    assertTrue(CJString.create("lone \ud800").isEscapeRequired());
+  }
+
+
+  @Test
+  public void testFormat() {
+    assertEquals("\"\"", CJString.format(""));
+    assertEquals("\"abc\"", CJString.format("abc"));
+    assertEquals("\"\\\"abc\\\\\"", CJString.format("\"abc\\"));
+    assertEquals("\"a\\b\\t\\n\\f\\r\\u0000\\u001Fz\"", CJString.format("a\b\t\n\f\r\u0000\u001fz"));
+    assertEquals("\"\u00e9\ud83d\ude00\u20ac\"", CJString.format("\u00e9\ud83d\ude00\u20ac"));
+    assertEquals("\"x\\uD800y\\uDC00\\uDBFF\"", CJString.format("x\ud800y\udc00\udbff"));
+    assertEquals("\"\\uDC00\ud83d\ude00\\uD83D\"", CJString.format("\udc00\ud83d\ude00\ud83d"));
+  }
+
+
+  @Test
+  public void testFormatKey() throws IOException {
+    // "Aa" and "BB" have the same hash code, so they replace each other in the key cache
+    String[] keys = {"Aa", "BB", "tab\tkey", "\u00e9\u20ac", "Aa", "Aa", "BB", "tab\tkey", "\u00e9\u20ac", "Aa", "BB"};
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    Utf8Appendable appendable = new Utf8Appendable(bytes);
+    StringBuilder expected = new StringBuilder();
+    for (String key : keys) {
+      CJString.formatKey(appendable, key);
+      CJString.format(expected, key);
+    }
+    appendable.finish();
+    assertEquals(expected.toString(), bytes.toString(UTF_8));
+
+    // other outputs are formatted directly
+    StringBuilder builder = new StringBuilder();
+    CJString.formatKey(builder, "Aa");
+    assertEquals("\"Aa\"", builder.toString());
+  }
+
+
+  @Test
+  public void testShortStrings() {
+    assertSame(CJString.create(""), CJString.create(new String("")));
+    assertSame(CJString.create("a"), CJString.create(new String("a")));
+    assertSame(CJString.create("\n"), CJString.createCompact(new StringBuilder("\n")));
+    assertEquals("\"\\n\"", CJString.create("\n").toString());
+  }
+
+
+  @Test
+  public void testWriteTo() throws IOException {
+    CJString string = CJString.create("line 1\nline 2 \"quoted\"");
+    StringWriter writer = new StringWriter();
+    string.writeTo(writer);
+    string.writeTo(writer);
+    String expected = "\"line 1\\nline 2 \\\"quoted\\\"\"";
+    assertEquals(expected + expected, writer.toString());
+    assertEquals(expected, string.toString());
+  }
+
+}
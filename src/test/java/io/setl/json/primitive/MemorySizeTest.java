@@ -0,0 +1,46 @@
+package io.setl.json.primitive;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.setl.json.primitive.numbers.CJNumber;
+
+/**
+ * @author Simon Greatrix on 19/10/2026.
+ */
+public class MemorySizeTest {
+
+  @Test
+  public void testArray() {
+    assertEquals(16, MemorySize.ofArray(4, 0));
+    assertEquals(24, MemorySize.ofArray(4, 1));
+    assertEquals(24, MemorySize.ofArray(1, 8));
+    assertEquals(32, MemorySize.ofArray(1, 9));
+  }
+
+
+  @Test
+  public void testNumbers() {
+    assertEquals(MemorySize.BIG_DECIMAL, MemorySize.ofBigDecimal(new BigDecimal("1.5")));
+    assertTrue(MemorySize.ofBigDecimal(new BigDecimal("1.5E+100").setScale(0)) > MemorySize.BIG_DECIMAL + MemorySize.BIG_INTEGER);
+    assertEquals(MemorySize.BIG_INTEGER + 24, MemorySize.ofBigInteger(BigInteger.ONE.shiftLeft(63)));
+
+    assertEquals(16, CJNumber.create(1).estimateRetainedSize());
+    assertEquals(24, CJNumber.create(Long.MAX_VALUE).estimateRetainedSize());
+    assertEquals(0, CJTrue.TRUE.estimateRetainedSize());
+  }
+
+
+  @Test
+  public void testString() {
+    assertEquals(MemorySize.STRING + 24, MemorySize.ofString("abcdefgh"));
+    assertEquals(MemorySize.STRING + 32, MemorySize.ofString("abcdefg\u0100"));
+    assertTrue(CJString.create("abc").estimateRetainedSize() > MemorySize.ofString("abc"));
+  }
+
+}
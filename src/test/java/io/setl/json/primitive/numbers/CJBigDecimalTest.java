@@ -7,6 +7,8 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
+import java.io.StringWriter;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import jakarta.json.JsonValue.ValueType;
@@ -158,6 +160,38 @@ public class CJBigDecimalTest {
     bd = new BigDecimal("-1234e+31");
     pbd = new CJBigDecimal(bd);
     assertEquals("-1.234E34", pbd.toString());
+
+    pbd = new CJBigDecimal(new BigDecimal("-0.03"));
+    assertEquals("-3.0E-2", pbd.toString());
+  }
+
+
+  @Test
+  public void testToStringShared() throws IOException {
+    CJNumber shared = CJNumber.forCache(new CJBigDecimal(new BigDecimal("-1.234e+40")));
+    assertTrue(shared instanceof CJBigDecimal.Shared);
+    String text = shared.toString();
+    assertEquals("-1.234E40", text);
+    assertSame(text, shared.toString());
+
+    StringBuilder buf = new StringBuilder();
+    shared.writeTo(buf, new char[CJNumber.SCRATCH_SIZE]);
+    assertEquals(text, buf.toString());
+  }
+
+
+  @Test
+  public void writeToScratch() throws IOException {
+    char[] scratch = new char[CJNumber.SCRATCH_SIZE];
+    StringWriter writer = new StringWriter();
+    new CJBigDecimal(new BigDecimal("-0.03")).writeTo(writer, scratch);
+    writer.append(',');
+    new CJBigDecimal(new BigDecimal("123456789012345678.9")).writeTo(writer, scratch);
+    writer.append(',');
+    new CJBigDecimal(new BigDecimal("-12345678901234567890.12e-400")).writeTo(writer, scratch);
+    writer.append(',');
+    new CJBigDecimal(BigDecimal.ZERO).writeTo(writer, scratch);
+    assertEquals("-3.0E-2,1.234567890123456789E17,-1.234567890123456789012E-381,0", writer.toString());
   }
 
 }
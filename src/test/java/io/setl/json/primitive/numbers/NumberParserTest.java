@@ -93,4 +93,18 @@ public class NumberParserTest {
     assertEquals(CJNumber.TYPE_LONG, pn.getNumberType());
   }
 
+
+  @Test
+  public void testReuse() {
+    Input input = new Input(new StringReader("1.5e400 12 -3"));
+    NumberParser np = new NumberParser(input);
+    assertEquals(CJNumber.TYPE_DECIMAL, np.parse(input.read()).getNumberType());
+    input.read();
+    CJNumber pn = np.parse(input.read());
+    assertEquals(CJNumber.TYPE_INT, pn.getNumberType());
+    assertEquals(12, pn.intValue());
+    input.read();
+    assertEquals(-3, np.parse(input.read()).intValue());
+  }
+
 }
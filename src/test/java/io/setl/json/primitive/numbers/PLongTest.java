@@ -8,6 +8,7 @@ import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import jakarta.json.JsonValue.ValueType;
@@ -135,4 +136,15 @@ public class PLongTest {
     assertNotNull(pl.toString());
   }
 
+
+  @Test
+  public void testWriteTo() throws IOException {
+    long[] values = {0, 7, -7, 10, -10, 99, 100, 1_234_567_890_123L, -1_000_000_000_000_000_000L, Long.MAX_VALUE, Long.MIN_VALUE};
+    for (long l : values) {
+      StringBuilder buf = new StringBuilder();
+      new CJLong(l).writeTo(buf);
+      assertEquals(Long.toString(l), buf.toString());
+    }
+  }
+
 }
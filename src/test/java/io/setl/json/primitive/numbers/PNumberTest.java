@@ -2,13 +2,18 @@ package io.setl.json.primitive.numbers;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.StringReader;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 
 import org.junit.jupiter.api.Test;
 
+import io.setl.json.io.Input;
+
 /**
  * @author Simon Greatrix on 26/01/2020.
  */
@@ -152,4 +157,19 @@ public class PNumberTest {
     assertEquals(bd, n);
   }
 
+
+  @Test
+  public void smallInt() {
+    assertSame(CJNumber.create(5), CJNumber.create(5L));
+    assertSame(CJNumber.create(5), CJNumber.cast(5L));
+    assertSame(CJNumber.create(-128), CJNumber.cast((short) -128));
+    assertSame(CJNumber.create(1023), CJNumber.castUnsafe(1023));
+    assertNotSame(CJNumber.create(-129), CJNumber.create(-129));
+
+    Input input = new Input(new StringReader("42"));
+    assertSame(CJNumber.create(42), new NumberParser(input).parse(input.read()));
+    input = new Input(new StringReader("4.25"));
+    assertEquals(CJNumber.TYPE_DECIMAL, new NumberParser(input).parse(input.read()).getNumberType());
+  }
+
 }